@@ -0,0 +1,26 @@
+package eyeforeye.eyediseasesclassification;
+
+import java.awt.image.BufferedImage;
+import java.util.Random;
+
+/**
+ * Gambar sintetis deterministik untuk benchmark
+ */
+final class BenchmarkImages {
+
+    private BenchmarkImages() {
+    }
+
+    static BufferedImage synthetic(int width, int height, int type) {
+        BufferedImage image = new BufferedImage(width, height, type);
+        Random random = new Random(42);
+        int[] row = new int[width];
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                row[x] = random.nextInt() & 0xFFFFFF;
+            }
+            image.setRGB(0, y, width, 1, row, 0, width);
+        }
+        return image;
+    }
+}
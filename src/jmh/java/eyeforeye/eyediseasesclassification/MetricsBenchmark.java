@@ -0,0 +1,61 @@
+package eyeforeye.eyediseasesclassification;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Konstruksi MetricsCalculator (confusion matrix) dan getFormattedResults
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MetricsBenchmark {
+
+    @Param({"1000", "20000"})
+    public int samples;
+
+    private final String[] classes = ModelPredictor.getClasses();
+    private List<MetricsCalculator.PredictionTuple> tuples;
+    private MetricsCalculator calculator;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        tuples = new ArrayList<>(samples);
+        for (int i = 0; i < samples; i++) {
+            String actual = classes[random.nextInt(classes.length)];
+            // ~80% benar agar confusion matrix realistis
+            String predicted = random.nextInt(5) == 0 ? classes[random.nextInt(classes.length)] : actual;
+            tuples.add(new MetricsCalculator.PredictionTuple(actual, predicted));
+        }
+        calculator = new MetricsCalculator(tuples, classes);
+    }
+
+    @Benchmark
+    public MetricsCalculator construct() {
+        return new MetricsCalculator(tuples, classes);
+    }
+
+    @Benchmark
+    public String formattedResults() {
+        return calculator.getFormattedResults();
+    }
+}
@@ -0,0 +1,83 @@
+package eyeforeye.eyediseasesclassification;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * predictFull dan predictBatch end-to-end (decode, resize, tensor, session.run)
+ * terhadap SavedModel sintetis yang dibuat saat setup.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PredictFullBenchmark {
+
+    @Param({"jpg", "png"})
+    public String format;
+
+    @Param({"1500"})
+    public int imageSize;
+
+    private Path workDir;
+    private File imageFile;
+    private List<File> batch;
+    private ModelPredictor predictor;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        workDir = Files.createTempDirectory("eye-bench");
+        Path modelDir = workDir.resolve("saved_model");
+        SyntheticModel.export(modelDir);
+
+        imageFile = workDir.resolve("fundus." + format).toFile();
+        ImageIO.write(BenchmarkImages.synthetic(imageSize, imageSize, BufferedImage.TYPE_3BYTE_BGR),
+                format, imageFile);
+        batch = Collections.nCopies(8, imageFile);
+
+        // Tanpa PredictionCache agar setiap iterasi benar-benar menjalankan model
+        predictor = new ModelPredictor(modelDir.toString());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        predictor.close();
+        try (Stream<Path> paths = Files.walk(workDir)) {
+            paths.sorted(Collections.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        }
+    }
+
+    @Benchmark
+    public PredictionResult predictFull() {
+        return predictor.predictFull(imageFile);
+    }
+
+    @Benchmark
+    public List<PredictionResult> predictBatchOf8() {
+        return predictor.predictBatch(batch);
+    }
+}
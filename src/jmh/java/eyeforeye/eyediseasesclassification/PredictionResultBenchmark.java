@@ -0,0 +1,58 @@
+package eyeforeye.eyediseasesclassification;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Biaya PredictionResult.getTopNPredictions yang dipanggil pada setiap prediksi
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PredictionResultBenchmark {
+
+    private PredictionResult result;
+    private final TopK topK = new TopK(3);
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        String[] classes = ModelPredictor.getClasses();
+        float[] probabilities = new float[classes.length];
+        Random random = new Random(42);
+        for (int i = 0; i < probabilities.length; i++) {
+            probabilities[i] = random.nextFloat();
+        }
+        result = new PredictionResult(new File("fundus.jpg"), classes, probabilities);
+    }
+
+    @Benchmark
+    public PredictionResult.ClassProbability[] top3() {
+        return result.getTopNPredictions(3);
+    }
+
+    @Benchmark
+    public TopK top3Primitive() {
+        return result.topK(topK);
+    }
+
+    @Benchmark
+    public PredictionResult.ClassProbability[] allPredictions() {
+        return result.getAllPredictions();
+    }
+}
@@ -0,0 +1,59 @@
+package eyeforeye.eyediseasesclassification;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.awt.Graphics;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Resize ke 224x224: ImageResampler dibandingkan Graphics.drawImage (implementasi lama)
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ResizeBenchmark {
+
+    @Param({"448", "1500", "3000"})
+    public int sourceSize;
+
+    @Param({"INT_RGB", "3BYTE_BGR"})
+    public String imageType;
+
+    private BufferedImage source;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        int type = "INT_RGB".equals(imageType) ? BufferedImage.TYPE_INT_RGB : BufferedImage.TYPE_3BYTE_BGR;
+        source = BenchmarkImages.synthetic(sourceSize, sourceSize, type);
+    }
+
+    @Benchmark
+    public BufferedImage resampler() {
+        return ImageResampler.resize(source, ModelPredictor.INPUT_SIZE, ModelPredictor.INPUT_SIZE);
+    }
+
+    @Benchmark
+    public BufferedImage legacyDrawImage() {
+        BufferedImage resized = new BufferedImage(ModelPredictor.INPUT_SIZE, ModelPredictor.INPUT_SIZE,
+                BufferedImage.TYPE_INT_RGB);
+        Graphics graphics = resized.getGraphics();
+        graphics.drawImage(source, 0, 0, ModelPredictor.INPUT_SIZE, ModelPredictor.INPUT_SIZE, null);
+        graphics.dispose();
+        return resized;
+    }
+}
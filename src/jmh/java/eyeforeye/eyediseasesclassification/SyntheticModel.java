@@ -0,0 +1,54 @@
+package eyeforeye.eyediseasesclassification;
+
+import org.tensorflow.Graph;
+import org.tensorflow.Operand;
+import org.tensorflow.SavedModelBundle;
+import org.tensorflow.Session;
+import org.tensorflow.Signature;
+import org.tensorflow.ndarray.Shape;
+import org.tensorflow.op.Ops;
+import org.tensorflow.op.core.Placeholder;
+import org.tensorflow.types.TFloat32;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * SavedModel kecil dengan nama operasi yang sama seperti model asli
+ * (serve_input_layer -> StatefulPartitionedCall), untuk benchmark end-to-end
+ * tanpa bergantung pada file model produksi.
+ */
+final class SyntheticModel {
+
+    private SyntheticModel() {
+    }
+
+    /**
+     * Buat SavedModel: rata-rata global per kanal -> dense 3x10 -> softmax
+     */
+    static void export(Path directory) throws IOException {
+        int numClasses = ModelPredictor.getClasses().length;
+        try (Graph graph = new Graph()) {
+            Ops tf = Ops.create(graph);
+            Placeholder<TFloat32> input = tf.withName("serve_input_layer").placeholder(TFloat32.class,
+                    Placeholder.shape(Shape.of(-1, ModelPredictor.INPUT_SIZE, ModelPredictor.INPUT_SIZE, 3)));
+            Operand<TFloat32> pooled = tf.math.mean(input, tf.constant(new int[]{1, 2}));
+
+            float[][] weights = new float[3][numClasses];
+            for (int c = 0; c < 3; c++) {
+                for (int k = 0; k < numClasses; k++) {
+                    weights[c][k] = (float) Math.sin(c * numClasses + k) * 4;
+                }
+            }
+            Operand<TFloat32> logits = tf.linalg.matMul(pooled, tf.constant(weights));
+            Operand<TFloat32> output = tf.withName("StatefulPartitionedCall").nn.softmax(logits);
+
+            try (Session session = new Session(graph)) {
+                SavedModelBundle.exporter(directory.toString())
+                        .withSession(session)
+                        .withSignature(Signature.builder().input("input", input).output("output", output).build())
+                        .export();
+            }
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package eyeforeye.eyediseasesclassification;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.tensorflow.ndarray.Shape;
+import org.tensorflow.ndarray.buffer.DataBuffers;
+import org.tensorflow.ndarray.buffer.FloatDataBuffer;
+import org.tensorflow.types.TFloat32;
+
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Biaya konversi satu gambar 224x224 ke tensor input model:
+ * jalur lama (getRGB per piksel + array baru) dibandingkan ImageTensors.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class TensorConversionBenchmark {
+
+    @Param({"INT_RGB", "3BYTE_BGR"})
+    public String imageType;
+
+    private BufferedImage image;
+    private TFloat32 reusableTensor;
+    private FloatDataBuffer reusableBuffer;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        int type = "INT_RGB".equals(imageType) ? BufferedImage.TYPE_INT_RGB : BufferedImage.TYPE_3BYTE_BGR;
+        image = BenchmarkImages.synthetic(ModelPredictor.INPUT_SIZE, ModelPredictor.INPUT_SIZE, type);
+        reusableTensor = TFloat32.tensorOf(Shape.of(1, ModelPredictor.INPUT_SIZE, ModelPredictor.INPUT_SIZE, 3));
+        reusableBuffer = reusableTensor.asRawTensor().data().asFloats();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        reusableTensor.close();
+    }
+
+    @Benchmark
+    public float legacyGetRgb() {
+        try (TFloat32 tensor = legacyImageToTensorRGB(image)) {
+            return tensor.getFloat(0, 0, 0, 0);
+        }
+    }
+
+    @Benchmark
+    public float rasterToReusableTensor() {
+        ImageTensors.writeRgb(image, reusableBuffer, 0);
+        return reusableBuffer.getFloat(0);
+    }
+
+    /**
+     * Salinan implementasi lama ModelPredictor.imageToTensorRGB sebagai pembanding
+     */
+    private static TFloat32 legacyImageToTensorRGB(BufferedImage img) {
+        int width = img.getWidth();
+        int height = img.getHeight();
+
+        float[] data = new float[height * width * 3];
+
+        int index = 0;
+        for (int h = 0; h < height; h++) {
+            for (int w = 0; w < width; w++) {
+                int pixel = img.getRGB(w, h);
+
+                int r = (pixel >> 16) & 0xFF;
+                int g = (pixel >> 8) & 0xFF;
+                int b = pixel & 0xFF;
+
+                data[index++] = r / 255.0f;
+                data[index++] = g / 255.0f;
+                data[index++] = b / 255.0f;
+            }
+        }
+
+        FloatDataBuffer buffer = DataBuffers.of(data);
+        return TFloat32.tensorOf(Shape.of(1, height, width, 3), buffer);
+    }
+}
@@ -12,6 +12,7 @@ public class App extends Application {
     private MainController singleController;
     private BatchController batchController;
     private EvaluationController evalController; // <-- TAMBAHKAN INI
+    private PerformanceController performanceController;
 
     @Override
     public void start(Stage stage) throws Exception {
@@ -35,8 +36,14 @@ public class App extends Application {
         evalTab.setClosable(false);
         evalController = evalLoader.getController();
         
+        // Tab 4: Performa (latensi per tahap, throughput, antrian)
+        FXMLLoader performanceLoader = new FXMLLoader(getClass().getResource("performance-view.fxml"));
+        Tab performanceTab = new Tab("Performance", performanceLoader.load());
+        performanceTab.setClosable(false);
+        performanceController = performanceLoader.getController();
+        
         // Tambahkan semua tab
-        tabPane.getTabs().addAll(singleTab, batchTab, evalTab); // <-- TAMBAHKAN evalTab
+        tabPane.getTabs().addAll(singleTab, batchTab, evalTab, performanceTab); // <-- TAMBAHKAN evalTab
         
         Scene scene = new Scene(tabPane, 900, 750);
         
@@ -65,9 +72,16 @@ public class App extends Application {
         if (evalController != null) { // <-- TAMBAHKAN INI
             evalController.cleanup();
         }
+        if (performanceController != null) {
+            performanceController.cleanup();
+        }
     }
 
     public static void main(String[] args) {
+        // Subcommand (predict / evaluate) dijalankan headless tanpa toolkit JavaFX
+        if (CommandLineApp.isCommand(args)) {
+            System.exit(CommandLineApp.run(args));
+        }
         launch();
     }
 }
\ No newline at end of file
@@ -1,23 +1,30 @@
 package eyeforeye.eyediseasesclassification;
 
 import javafx.application.Platform;
-import javafx.collections.FXCollections;
-import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
 import javafx.scene.control.*;
 import javafx.scene.control.cell.PropertyValueFactory;
 import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
+import javafx.stage.DirectoryChooser;
 import javafx.stage.FileChooser;
 import javafx.stage.Stage;
 
 import java.io.File;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BooleanSupplier;
+import java.util.function.IntSupplier;
 
 public class BatchController {
 
     @FXML
-    private Button uploadBatchButton, predictBatchButton, clearButton;
+    private Button uploadBatchButton, uploadFolderButton, predictBatchButton, clearButton;
+
+    @FXML
+    private CheckBox recursiveCheckBox;
 
     @FXML
     private TableView<BatchResult> resultTable;
@@ -47,8 +54,10 @@ public class BatchController {
     private ProgressBar progressBar;
 
     private ModelPredictor modelPredictor;
-    private ObservableList<BatchResult> results;
+    private CompletableFuture<ModelPredictor> modelFuture;
+    private BatchResultStore results; // Kolom ringkas; baris BatchResult dibuat saat ditampilkan
     private File lastDirectory;
+    private File selectedFolder; // Mode folder: file ditelusuri bertahap saat prediksi berjalan
 
     @FXML
     public void initialize() {
@@ -58,8 +67,8 @@ public class BatchController {
         confidenceColumn.setCellValueFactory(new PropertyValueFactory<>("confidencePercent"));
         statusColumn.setCellValueFactory(new PropertyValueFactory<>("status"));
 
-        // Initialize observable list
-        results = FXCollections.observableArrayList();
+        // Initialize result store
+        results = new BatchResultStore();
         resultTable.setItems(results);
 
         // Add selection listener
@@ -84,21 +93,16 @@ public class BatchController {
     private void loadModel() {
         detailLabel.setText("⏳ Memuat model...");
         
-        new Thread(() -> {
-            try {
-                modelPredictor = new ModelPredictor("saved_model");
-                
-                Platform.runLater(() -> {
-                    detailLabel.setText("✅ Model siap! Silakan upload gambar.");
-                });
-                
-            } catch (Exception e) {
-                e.printStackTrace();
-                Platform.runLater(() -> {
-                    detailLabel.setText("❌ Gagal memuat model: " + e.getMessage());
-                });
+        // Model dimuat (dan di-warm-up) di latar oleh ModelRegistry
+        modelFuture = ModelRegistry.acquireAsync();
+        modelFuture.whenComplete((predictor, error) -> Platform.runLater(() -> {
+            if (error != null || predictor.getState() == ModelPredictor.State.FAILED) {
+                detailLabel.setText("❌ Gagal memuat model" + (error != null ? ": " + error.getMessage() : ""));
+                return;
             }
-        }).start();
+            modelPredictor = predictor;
+            detailLabel.setText("✅ Model siap! Silakan upload gambar.");
+        }));
     }
 
     @FXML
@@ -119,14 +123,13 @@ public class BatchController {
 
         if (selectedFiles != null && !selectedFiles.isEmpty()) {
             lastDirectory = selectedFiles.get(0).getParentFile();
+            selectedFolder = null;
             
             // Clear previous results
             results.clear();
             
             // Add placeholder results
-            for (File file : selectedFiles) {
-                results.add(new BatchResult(file, "Menunggu..."));
-            }
+            results.addPending(selectedFiles);
 
             predictBatchButton.setDisable(false);
             summaryLabel.setText(String.format("📁 %d gambar dipilih", selectedFiles.size()));
@@ -134,14 +137,37 @@ public class BatchController {
         }
     }
 
+    @FXML
+    private void onUploadFolderClicked() {
+        DirectoryChooser directoryChooser = new DirectoryChooser();
+        directoryChooser.setTitle("Pilih Folder Gambar Mata");
+        if (lastDirectory != null && lastDirectory.exists()) {
+            directoryChooser.setInitialDirectory(lastDirectory);
+        }
+
+        File directory = directoryChooser.showDialog(uploadFolderButton.getScene().getWindow());
+        if (directory != null) {
+            lastDirectory = directory;
+            selectedFolder = directory;
+
+            // Tidak ada placeholder: baris ditambahkan saat hasil prediksi masuk
+            results.clear();
+
+            predictBatchButton.setDisable(false);
+            summaryLabel.setText("📂 Folder dipilih: " + directory.getName());
+            detailLabel.setText("Klik 'Prediksi Batch' untuk memulai");
+        }
+    }
+
     @FXML
     private void onPredictBatchClicked() {
-        if (results.isEmpty() || modelPredictor == null) {
+        if ((results.isEmpty() && selectedFolder == null) || modelPredictor == null) {
             return;
         }
 
         // Disable buttons during prediction
         uploadBatchButton.setDisable(true);
+        uploadFolderButton.setDisable(true);
         predictBatchButton.setDisable(true);
         clearButton.setDisable(true);
         progressBar.setVisible(true);
@@ -149,58 +175,114 @@ public class BatchController {
 
         detailLabel.setText("🔄 Memproses prediksi batch...");
 
-        // Process in background thread
-        new Thread(() -> {
-            int total = results.size();
-            int processed = 0;
-
-            for (int i = 0; i < total; i++) {
-                final int index = i;
-                BatchResult placeholder = results.get(i);
-                File imageFile = placeholder.getImageFile();
-
-                // Predict
-                BatchResult result = modelPredictor.predictDetailed(imageFile);
-
-                // Update UI
-                final int currentProcessed = ++processed;
-                Platform.runLater(() -> {
-                    results.set(index, result);
-                    progressBar.setProgress((double) currentProcessed / total);
-                    detailLabel.setText(String.format(
-                        "🔄 Memproses... %d/%d", currentProcessed, total
-                    ));
-                });
-
-                // Small delay to prevent UI freeze
-                try {
-                    Thread.sleep(100);
-                } catch (InterruptedException e) {
-                    e.printStackTrace();
+        // Process in background pipeline
+        BatchPredictionPipeline pipeline = new BatchPredictionPipeline(modelPredictor);
+        if (selectedFolder != null) {
+            results.clear();
+            ImageFileScanner scanner = ImageFileScanner.forFolder(selectedFolder, recursiveCheckBox.isSelected());
+            pipeline.start(scanner, new PipelineListener(true, scanner::getFoundCount, scanner::isFinished));
+        } else {
+            List<File> imageFiles = new ArrayList<>(results.size());
+            for (int i = 0; i < results.size(); i++) {
+                imageFiles.add(results.get(i).getImageFile());
+            }
+            int total = imageFiles.size();
+            pipeline.start(imageFiles, new PipelineListener(false, () -> total, () -> true));
+        }
+    }
+
+    /**
+     * Menampilkan hasil pipeline di tabel. Pada mode folder, baris ditambahkan saat hasil masuk
+     * dan total adalah jumlah file yang sudah ditemukan sejauh ini.
+     * Hasil dikumpulkan oleh ProgressPublisher dan diterapkan ke tabel per frame dalam rentang baris.
+     */
+    private class PipelineListener implements BatchPredictionPipeline.Listener {
+        private final boolean appendRows;
+        private final IntSupplier total;
+        private final BooleanSupplier totalKnown;
+        private final ProgressPublisher<IndexedResult> publisher = new ProgressPublisher<>(this::render);
+        private int processed = 0; // Hanya diakses di FX thread
+
+        PipelineListener(boolean appendRows, IntSupplier total, BooleanSupplier totalKnown) {
+            this.appendRows = appendRows;
+            this.total = total;
+            this.totalKnown = totalKnown;
+            publisher.start();
+        }
+
+        @Override
+        public void onResult(int index, PredictionResult prediction) {
+            publisher.submit(new IndexedResult(index, prediction));
+        }
+
+        private void render(List<IndexedResult> items) {
+            if (appendRows) {
+                List<PredictionResult> rows = new ArrayList<>(items.size());
+                for (IndexedResult item : items) {
+                    rows.add(item.result);
+                }
+                results.addResults(rows);
+            } else {
+                // Indeks yang berurutan digabung menjadi satu rentang setResults
+                items.sort(Comparator.comparingInt(item -> item.index));
+                int start = 0;
+                for (int i = 1; i <= items.size(); i++) {
+                    if (i == items.size() || items.get(i).index != items.get(i - 1).index + 1) {
+                        List<PredictionResult> range = new ArrayList<>(i - start);
+                        for (IndexedResult item : items.subList(start, i)) {
+                            range.add(item.result);
+                        }
+                        results.setResults(items.get(start).index, range);
+                        start = i;
+                    }
                 }
             }
 
+            // Update UI
+            processed += items.size();
+            int currentTotal = Math.max(total.getAsInt(), processed);
+            String totalText = totalKnown.getAsBoolean() ? String.valueOf(currentTotal) : currentTotal + "+";
+            progressBar.setProgress(currentTotal == 0 ? 0 : (double) processed / currentTotal);
+            detailLabel.setText(String.format(
+                "🔄 Memproses... %d/%s", processed, totalText
+            ));
+        }
+
+        @Override
+        public void onFinished() {
             // Show summary
-            Platform.runLater(() -> {
+            publisher.finish(() -> {
                 uploadBatchButton.setDisable(false);
+                uploadFolderButton.setDisable(false);
                 predictBatchButton.setDisable(false);
                 clearButton.setDisable(false);
                 progressBar.setVisible(false);
 
-                long successCount = results.stream().filter(BatchResult::isSuccess).count();
-                long errorCount = total - successCount;
+                int successCount = results.getSuccessCount();
+                int errorCount = results.getErrorCount();
 
                 summaryLabel.setText(String.format(
                     "✅ Selesai! Sukses: %d, Error: %d", successCount, errorCount
                 ));
                 detailLabel.setText("Klik baris tabel untuk melihat detail gambar");
             });
-        }).start();
+        }
+    }
+
+    private static final class IndexedResult {
+        private final int index;
+        private final PredictionResult result;
+
+        IndexedResult(int index, PredictionResult result) {
+            this.index = index;
+            this.result = result;
+        }
     }
 
     @FXML
     private void onClearClicked() {
         results.clear();
+        selectedFolder = null;
         selectedImageView.setImage(null);
         detailLabel.setText("Tabel hasil dibersihkan");
         summaryLabel.setText("Belum ada gambar yang dipilih");
@@ -239,8 +321,10 @@ public class BatchController {
     }
 
     public void cleanup() {
-        if (modelPredictor != null) {
-            modelPredictor.close();
+        if (modelFuture != null) {
+            modelFuture.thenAccept(ModelRegistry::release);
+            modelFuture = null;
         }
+        modelPredictor = null;
     }
 }
\ No newline at end of file
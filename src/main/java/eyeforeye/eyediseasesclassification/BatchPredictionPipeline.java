@@ -0,0 +1,261 @@
+package eyeforeye.eyediseasesclassification;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pipeline prediksi batch bertahap:
+ * 1. Beberapa worker decode/resize gambar secara paralel
+ * 2. Thread inference (satu per replika model) menggabungkan gambar siap menjadi batch untuk session.run
+ * 3. Satu thread publish mengirim hasil ke listener (misalnya UI)
+ * Antar tahap dihubungkan dengan antrian berkapasitas terbatas.
+ */
+public class BatchPredictionPipeline {
+
+    /**
+     * Callback hasil pipeline. Dipanggil dari thread publish, bukan dari FX thread.
+     */
+    public interface Listener {
+        void onResult(int index, PredictionResult result);
+
+        void onFinished();
+    }
+
+    public static final int DEFAULT_DECODE_WORKERS =
+            Integer.getInteger("eye.decodeWorkers", Math.max(1, Runtime.getRuntime().availableProcessors() - 1));
+    // Ukuran batch: -Deye.batchSize, lalu hasil perintah "tune", lalu 8
+    public static final int DEFAULT_BATCH_SIZE = Integer.getInteger("eye.batchSize", SessionSettings.tunedBatchSize(8));
+    public static final int DEFAULT_QUEUE_CAPACITY = Integer.getInteger("eye.queueCapacity", 32);
+
+    private final ModelPredictor modelPredictor;
+    private final int decodeWorkers;
+    private final int batchSize;
+    private final int queueCapacity;
+
+    public BatchPredictionPipeline(ModelPredictor modelPredictor) {
+        this(modelPredictor, DEFAULT_DECODE_WORKERS, DEFAULT_BATCH_SIZE, DEFAULT_QUEUE_CAPACITY);
+    }
+
+    public BatchPredictionPipeline(ModelPredictor modelPredictor, int decodeWorkers, int batchSize, int queueCapacity) {
+        if (decodeWorkers < 1 || batchSize < 1 || queueCapacity < 1) {
+            throw new IllegalArgumentException("Jumlah worker, ukuran batch dan kapasitas antrian harus >= 1");
+        }
+        this.modelPredictor = modelPredictor;
+        this.decodeWorkers = decodeWorkers;
+        this.batchSize = batchSize;
+        this.queueCapacity = queueCapacity;
+    }
+
+    /**
+     * Jalankan pipeline di background dan langsung kembali
+     */
+    public void start(List<File> imageFiles, Listener listener) {
+        Thread runner = new Thread(() -> run(imageFiles, listener), "batch-pipeline");
+        runner.setDaemon(true);
+        runner.start();
+    }
+
+    /**
+     * Jalankan pipeline dan tunggu sampai semua hasil terkirim ke listener
+     */
+    public void run(List<File> imageFiles, Listener listener) {
+        int total = imageFiles.size();
+        if (total == 0) {
+            listener.onFinished();
+            return;
+        }
+
+        AtomicInteger nextIndex = new AtomicInteger();
+        run(() -> {
+            int index = nextIndex.getAndIncrement();
+            return index < total ? new Item<>(index, imageFiles.get(index)) : null;
+        }, Math.min(decodeWorkers, total), listener);
+    }
+
+    /**
+     * Jalankan pipeline di background untuk file dari scanner (folder besar)
+     */
+    public void start(ImageFileScanner scanner, Listener listener) {
+        Thread runner = new Thread(() -> run(scanner, listener), "batch-pipeline");
+        runner.setDaemon(true);
+        runner.start();
+    }
+
+    /**
+     * Seperti run(List, Listener), tetapi file diambil dari scanner saat ditemukan.
+     * Indeks hasil adalah nomor urut penemuan file (Found.index).
+     */
+    public void run(ImageFileScanner scanner, Listener listener) {
+        try {
+            run(() -> {
+                ImageFileScanner.Found found = scanner.next();
+                return found != null ? new Item<>(found.index, found.file) : null;
+            }, decodeWorkers, listener);
+        } finally {
+            scanner.close();
+        }
+    }
+
+    private void run(Source source, int workers, Listener listener) {
+        BlockingQueue<Item<PreparedImage>> preparedQueue = new ArrayBlockingQueue<>(queueCapacity);
+        BlockingQueue<Item<PredictionResult>> resultQueue = new ArrayBlockingQueue<>(queueCapacity);
+        AtomicInteger runningDecoders = new AtomicInteger(workers);
+        int inferenceThreads = modelPredictor.getReplicaCount();
+        AtomicInteger runningInference = new AtomicInteger(inferenceThreads);
+        PerformanceMetrics.Gauge preparedGauge = PerformanceMetrics.registerGauge("pipeline.prepared_queue", preparedQueue::size);
+        PerformanceMetrics.Gauge resultGauge = PerformanceMetrics.registerGauge("pipeline.result_queue", resultQueue::size);
+
+        // Tahap 1: decode & resize paralel
+        List<Thread> threads = new ArrayList<>();
+        for (int w = 0; w < workers; w++) {
+            threads.add(newThread("batch-decode-" + w, () -> {
+                try {
+                    Item<File> file;
+                    while ((file = source.next()) != null) {
+                        PreparedImage prepared = modelPredictor.prepare(file.value);
+                        preparedQueue.put(new Item<>(file.index, prepared));
+                    }
+                } catch (IOException e) {
+                    System.err.println("❌ Gagal membaca folder: " + e.getMessage());
+                } finally {
+                    // Worker terakhir menandai akhir antrian
+                    if (runningDecoders.decrementAndGet() == 0) {
+                        preparedQueue.put(Item.end());
+                    }
+                }
+            }));
+        }
+
+        // Tahap 2: inference per batch
+        for (int r = 0; r < inferenceThreads; r++) {
+            threads.add(newThread("batch-inference-" + r, () -> {
+                List<Item<PreparedImage>> pending = new ArrayList<>(batchSize);
+                List<PreparedImage> images = new ArrayList<>(batchSize);
+                boolean done = false;
+                try {
+                    while (!done) {
+                        pending.add(preparedQueue.take());
+                        preparedQueue.drainTo(pending, batchSize - 1);
+                        // Penanda akhir selalu elemen terakhir yang masuk antrian;
+                        // kembalikan agar thread inference lain juga berhenti
+                        if (pending.get(pending.size() - 1).isEnd()) {
+                            pending.remove(pending.size() - 1);
+                            preparedQueue.put(Item.end());
+                            done = true;
+                        }
+
+                        if (!pending.isEmpty()) {
+                            for (Item<PreparedImage> item : pending) {
+                                images.add(item.value);
+                            }
+                            List<PredictionResult> results = predictOrFail(images);
+                            for (int i = 0; i < pending.size(); i++) {
+                                resultQueue.put(new Item<>(pending.get(i).index, results.get(i)));
+                            }
+                        }
+                        pending.clear();
+                        images.clear();
+                    }
+                } finally {
+                    // Thread inference terakhir menandai akhir hasil, juga jika thread ini gagal,
+                    // agar publisher (dan pemanggil run) tidak menunggu selamanya
+                    if (runningInference.decrementAndGet() == 0) {
+                        resultQueue.put(Item.end());
+                    }
+                }
+            }));
+        }
+
+        // Tahap 3: publish hasil
+        Thread publisher = newThread("batch-publish", () -> {
+            Item<PredictionResult> item;
+            while (!(item = resultQueue.take()).isEnd()) {
+                listener.onResult(item.index, item.value);
+            }
+        });
+        threads.add(publisher);
+
+        for (Thread thread : threads) {
+            thread.start();
+        }
+
+        try {
+            publisher.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            for (Thread thread : threads) {
+                thread.interrupt();
+            }
+        } finally {
+            preparedGauge.close();
+            resultGauge.close();
+            listener.onFinished();
+        }
+    }
+
+    /**
+     * Jalankan batch; jika session.run gagal (misalnya error native TensorFlow),
+     * setiap gambar dalam batch mendapat hasil error agar tetap terlaporkan ke listener
+     */
+    private List<PredictionResult> predictOrFail(List<PreparedImage> images) {
+        try {
+            return modelPredictor.predictPrepared(images);
+        } catch (RuntimeException e) {
+            e.printStackTrace();
+            List<PredictionResult> results = new ArrayList<>(images.size());
+            for (PreparedImage image : images) {
+                results.add(new PredictionResult(image.getImageFile(), "Error: " + e.getMessage()));
+            }
+            return results;
+        }
+    }
+
+    private static Thread newThread(String name, InterruptibleTask task) {
+        Thread thread = new Thread(() -> {
+            try {
+                task.run();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, name);
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    private interface InterruptibleTask {
+        void run() throws InterruptedException;
+    }
+
+    /**
+     * Sumber file untuk tahap decode; null berarti sudah habis. Harus aman untuk banyak thread.
+     */
+    private interface Source {
+        Item<File> next() throws IOException;
+    }
+
+    private static class Item<T> {
+        private static final Item<?> END = new Item<>(-1, null);
+
+        private final int index;
+        private final T value;
+
+        Item(int index, T value) {
+            this.index = index;
+            this.value = value;
+        }
+
+        @SuppressWarnings("unchecked")
+        static <T> Item<T> end() {
+            return (Item<T>) END;
+        }
+
+        boolean isEnd() {
+            return this == END;
+        }
+    }
+}
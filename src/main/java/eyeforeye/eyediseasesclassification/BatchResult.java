@@ -30,6 +30,16 @@ public class BatchResult {
         this.errorMessage = errorMessage;
     }
     
+    /**
+     * Konversi hasil prediksi lengkap menjadi baris hasil batch
+     */
+    public static BatchResult from(PredictionResult result) {
+        if (!result.isSuccess()) {
+            return new BatchResult(result.getImageFile(), result.getErrorMessage());
+        }
+        return new BatchResult(result.getImageFile(), result.getPredictedClass(), result.getConfidence());
+    }
+    
     // Getters
     public File getImageFile() {
         return imageFile;
@@ -0,0 +1,294 @@
+package eyeforeye.eyediseasesclassification;
+
+import javafx.collections.ObservableListBase;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Penyimpanan hasil batch dalam bentuk kolom (array primitif) untuk TableView.
+ * Per baris hanya disimpan indeks folder, offset dan panjang nama file (UTF-8 di satu array byte
+ * bersama), indeks kelas (byte), confidence (float), kode status (byte) dan indeks pesan error.
+ * Folder, nama kelas dan pesan error disimpan sekali dalam tabel intern, sehingga 100 ribu baris
+ * hanya butuh beberapa puluh byte per baris tanpa objek String per baris.
+ *
+ * TableView melihat list ini sebagai ObservableList&lt;BatchResult&gt;: get() membuat
+ * BatchResult ringan dari kolom hanya untuk baris yang sedang ditampilkan. Baris yang baru dibuat
+ * disimpan di cache kecil, sehingga get() mengembalikan objek yang sama selama baris itu
+ * tidak berubah (seleksi dan fokus TableView tidak ikut berubah saat baris lain diganti).
+ * Hanya boleh diakses dari FX Application Thread.
+ */
+public final class BatchResultStore extends ObservableListBase<BatchResult> {
+
+    private static final byte STATUS_PENDING = 0;
+    private static final byte STATUS_SUCCESS = 1;
+    private static final byte STATUS_ERROR = 2;
+
+    private static final String PENDING_MESSAGE = "Menunggu...";
+    private static final int INITIAL_CAPACITY = 64;
+
+    private Columns columns = new Columns(INITIAL_CAPACITY);
+
+    /**
+     * Tambahkan baris "Menunggu..." untuk file yang akan diprediksi (satu event perubahan)
+     */
+    public void addPending(List<File> files) {
+        if (files.isEmpty()) {
+            return;
+        }
+        int from = columns.size;
+        columns.ensureCapacity(from + files.size());
+        for (File file : files) {
+            columns.append(file);
+        }
+        beginChange();
+        nextAdd(from, columns.size);
+        endChange();
+    }
+
+    /**
+     * Tambahkan beberapa hasil prediksi di akhir tabel (satu event perubahan)
+     */
+    public void addResults(List<PredictionResult> results) {
+        if (results.isEmpty()) {
+            return;
+        }
+        int from = columns.size;
+        columns.ensureCapacity(from + results.size());
+        for (PredictionResult result : results) {
+            int index = columns.size;
+            columns.append(result.getImageFile());
+            columns.store(index, result);
+        }
+        beginChange();
+        nextAdd(from, columns.size);
+        endChange();
+    }
+
+    /**
+     * Ganti baris from..from+results.size()-1 dengan hasil prediksi (satu event perubahan)
+     */
+    public void setResults(int from, List<PredictionResult> results) {
+        if (results.isEmpty()) {
+            return;
+        }
+        checkIndex(from);
+        checkIndex(from + results.size() - 1);
+        List<BatchResult> old = new ArrayList<>(results.size());
+        for (int i = 0; i < results.size(); i++) {
+            old.add(columns.row(from + i));
+            columns.store(from + i, results.get(i));
+        }
+        beginChange();
+        nextReplace(from, from + results.size(), old);
+        endChange();
+    }
+
+    /**
+     * Jumlah baris yang berhasil diprediksi
+     */
+    public int getSuccessCount() {
+        return columns.count(STATUS_SUCCESS);
+    }
+
+    /**
+     * Jumlah baris yang gagal diprediksi
+     */
+    public int getErrorCount() {
+        return columns.count(STATUS_ERROR);
+    }
+
+    @Override
+    public BatchResult get(int index) {
+        checkIndex(index);
+        return columns.row(index);
+    }
+
+    @Override
+    public int size() {
+        return columns.size;
+    }
+
+    @Override
+    public void clear() {
+        if (columns.size == 0) {
+            return;
+        }
+        // Kolom lama tidak diubah lagi, jadi bisa langsung dipakai sebagai daftar baris yang dihapus
+        Columns removed = columns;
+        columns = new Columns(INITIAL_CAPACITY);
+        beginChange();
+        nextRemove(0, removed.asList());
+        endChange();
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= columns.size) {
+            throw new IndexOutOfBoundsException("Indeks " + index + " di luar 0.." + (columns.size - 1));
+        }
+    }
+
+    /**
+     * Data kolom beserta tabel intern-nya
+     */
+    private static final class Columns {
+        // Cache baris direct-mapped; ukuran pangkat dua, cukup untuk satu layar tabel
+        private static final int ROW_CACHE_SIZE = 512;
+
+        private final List<File> directories = new ArrayList<>();
+        private final Map<File, Integer> directoryIndex = new HashMap<>();
+        private final List<String> classNames = new ArrayList<>();
+        private final Map<String, Integer> classIndex = new HashMap<>();
+        private final List<String> messages = new ArrayList<>();
+        private final Map<String, Integer> messageIndex = new HashMap<>();
+
+        private int[] directory;
+        private byte[] nameBytes;
+        private int nameBytesUsed;
+        private int[] nameOffset;
+        private short[] nameLength;
+        private byte[] predictedClass;
+        private float[] confidence;
+        private byte[] status;
+        private int[] message;
+        private int size;
+
+        private final BatchResult[] rowCache = new BatchResult[ROW_CACHE_SIZE];
+        private final int[] rowCacheIndex = new int[ROW_CACHE_SIZE];
+
+        Columns(int capacity) {
+            directory = new int[capacity];
+            nameBytes = new byte[capacity * 16];
+            nameOffset = new int[capacity];
+            nameLength = new short[capacity];
+            Arrays.fill(rowCacheIndex, -1);
+            predictedClass = new byte[capacity];
+            confidence = new float[capacity];
+            status = new byte[capacity];
+            message = new int[capacity];
+        }
+
+        void ensureCapacity(int capacity) {
+            if (capacity <= directory.length) {
+                return;
+            }
+            int newCapacity = Math.max(capacity, directory.length * 2);
+            directory = Arrays.copyOf(directory, newCapacity);
+            nameOffset = Arrays.copyOf(nameOffset, newCapacity);
+            nameLength = Arrays.copyOf(nameLength, newCapacity);
+            predictedClass = Arrays.copyOf(predictedClass, newCapacity);
+            confidence = Arrays.copyOf(confidence, newCapacity);
+            status = Arrays.copyOf(status, newCapacity);
+            message = Arrays.copyOf(message, newCapacity);
+        }
+
+        /**
+         * Baris baru berstatus menunggu
+         */
+        void append(File file) {
+            int index = size++;
+            File parent = file.getAbsoluteFile().getParentFile();
+            directory[index] = intern(parent, directories, directoryIndex);
+            byte[] encoded = file.getName().getBytes(StandardCharsets.UTF_8);
+            if (encoded.length > Short.MAX_VALUE) {
+                throw new IllegalArgumentException("Nama file terlalu panjang: " + file.getName());
+            }
+            if (nameBytesUsed + encoded.length > nameBytes.length) {
+                nameBytes = Arrays.copyOf(nameBytes, Math.max(nameBytesUsed + encoded.length, nameBytes.length * 2));
+            }
+            System.arraycopy(encoded, 0, nameBytes, nameBytesUsed, encoded.length);
+            nameOffset[index] = nameBytesUsed;
+            nameLength[index] = (short) encoded.length;
+            nameBytesUsed += encoded.length;
+            predictedClass[index] = 0;
+            confidence[index] = 0.0f;
+            status[index] = STATUS_PENDING;
+            message[index] = -1;
+        }
+
+        void store(int index, PredictionResult result) {
+            int slot = index & (ROW_CACHE_SIZE - 1);
+            if (rowCacheIndex[slot] == index) {
+                rowCacheIndex[slot] = -1;
+                rowCache[slot] = null;
+            }
+            if (result.isSuccess()) {
+                int c = intern(result.getPredictedClass(), classNames, classIndex);
+                if (c > 0xFF) {
+                    throw new IllegalStateException("Jumlah kelas melebihi 256");
+                }
+                predictedClass[index] = (byte) c;
+                confidence[index] = result.getConfidence();
+                status[index] = STATUS_SUCCESS;
+                message[index] = -1;
+            } else {
+                predictedClass[index] = 0;
+                confidence[index] = 0.0f;
+                status[index] = STATUS_ERROR;
+                message[index] = intern(result.getErrorMessage(), messages, messageIndex);
+            }
+        }
+
+        BatchResult row(int index) {
+            int slot = index & (ROW_CACHE_SIZE - 1);
+            if (rowCacheIndex[slot] != index) {
+                rowCache[slot] = buildRow(index);
+                rowCacheIndex[slot] = index;
+            }
+            return rowCache[slot];
+        }
+
+        private BatchResult buildRow(int index) {
+            String name = new String(nameBytes, nameOffset[index], nameLength[index], StandardCharsets.UTF_8);
+            File file = new File(directories.get(directory[index]), name);
+            switch (status[index]) {
+                case STATUS_SUCCESS:
+                    return new BatchResult(file, classNames.get(predictedClass[index] & 0xFF), confidence[index]);
+                case STATUS_ERROR:
+                    return new BatchResult(file, messages.get(message[index]));
+                default:
+                    return new BatchResult(file, PENDING_MESSAGE);
+            }
+        }
+
+        int count(byte code) {
+            int count = 0;
+            for (int i = 0; i < size; i++) {
+                if (status[i] == code) {
+                    count++;
+                }
+            }
+            return count;
+        }
+
+        List<BatchResult> asList() {
+            return new AbstractList<BatchResult>() {
+                @Override
+                public BatchResult get(int index) {
+                    return row(index);
+                }
+
+                @Override
+                public int size() {
+                    return size;
+                }
+            };
+        }
+
+        private static <T> int intern(T value, List<T> table, Map<T, Integer> index) {
+            Integer existing = index.get(value);
+            if (existing != null) {
+                return existing;
+            }
+            table.add(value);
+            index.put(value, table.size() - 1);
+            return table.size() - 1;
+        }
+    }
+}
@@ -0,0 +1,525 @@
+package eyeforeye.eyediseasesclassification;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Mode command-line (headless) tanpa JavaFX:
+ *   predict <folder>   prediksi semua gambar di folder, hasil dialirkan sebagai CSV/JSONL
+ *   evaluate <folder>  evaluasi dataset uji (sub-folder per kelas) dan cetak metrik
+ *   serve              jalankan server HTTP prediksi (lihat InferenceServer)
+ *   tune <folder>      ukur throughput untuk kombinasi thread TensorFlow dan ukuran batch,
+ *                      lalu simpan konfigurasi terbaik ke profil tuning (lihat SessionSettings)
+ * Jalankan langsung kelas ini (bukan App) di server tanpa display, karena launcher Java
+ * memeriksa runtime JavaFX untuk main class turunan Application.
+ */
+public class CommandLineApp {
+
+    static final int EXIT_OK = 0;
+    static final int EXIT_ERROR = 1;
+    static final int EXIT_USAGE = 2;
+
+    public static void main(String[] args) {
+        System.exit(run(args));
+    }
+
+    /**
+     * True jika argumen meminta mode command-line, bukan UI
+     */
+    public static boolean isCommand(String[] args) {
+        return args.length > 0 && !args[0].startsWith("-");
+    }
+
+    public static int run(String[] args) {
+        // stdout khusus untuk data hasil; pesan status model dialihkan ke stderr
+        PrintStream data = System.out;
+        System.setOut(System.err);
+        try {
+            return run(args, data);
+        } finally {
+            System.setOut(data);
+        }
+    }
+
+    private static int run(String[] args, PrintStream data) {
+        if (args.length == 0) {
+            printUsage();
+            return EXIT_USAGE;
+        }
+
+        Options options;
+        try {
+            options = Options.parse(Arrays.copyOfRange(args, 1, args.length));
+        } catch (IllegalArgumentException e) {
+            System.err.println("❌ " + e.getMessage());
+            printUsage();
+            return EXIT_USAGE;
+        }
+
+        try {
+            switch (args[0]) {
+                case "predict":
+                    return predict(options, data);
+                case "evaluate":
+                    return evaluate(options, data);
+                case "serve":
+                    return serve(options);
+                case "tune":
+                    return tune(options, data);
+                default:
+                    System.err.println("❌ Perintah tidak dikenal: " + args[0]);
+                    printUsage();
+                    return EXIT_USAGE;
+            }
+        } catch (IOException e) {
+            System.err.println("❌ " + e.getMessage());
+            return EXIT_ERROR;
+        }
+    }
+
+    private static int predict(Options options, PrintStream data) throws IOException {
+        File directory = options.requireDirectory();
+        ModelPredictor predictor = loadModel(options);
+        if (predictor == null) {
+            return EXIT_ERROR;
+        }
+
+        String[] classNames = ModelPredictor.getClasses();
+        boolean jsonl = "jsonl".equals(options.format);
+        long start = System.nanoTime();
+        int[] counts = new int[2]; // {diproses, error}
+        ImageFileScanner scanner = ImageFileScanner.forFolder(directory, options.recursive);
+
+        try (PrintWriter out = openOutput(options.output, data)) {
+            if (!jsonl) {
+                out.println(PredictionFormats.csvHeader(classNames));
+            }
+
+            BatchPredictionPipeline pipeline = new BatchPredictionPipeline(predictor,
+                    options.workersOr(BatchPredictionPipeline.DEFAULT_DECODE_WORKERS),
+                    options.batchSize, BatchPredictionPipeline.DEFAULT_QUEUE_CAPACITY);
+            // File diprediksi segera setelah ditemukan; hasil ditulis sesuai urutan selesai
+            pipeline.run(scanner, new BatchPredictionPipeline.Listener() {
+                @Override
+                public void onResult(int index, PredictionResult result) {
+                    out.println(jsonl ? PredictionFormats.toJson(result, options.topK) : PredictionFormats.toCsv(result, classNames));
+                    if (!result.isSuccess()) {
+                        counts[1]++;
+                    }
+                    if (++counts[0] % 100 == 0) {
+                        out.flush();
+                        System.err.printf("🔄 %d/%d%s%n", counts[0], scanner.getFoundCount(),
+                                scanner.isFinished() ? "" : "+");
+                    }
+                }
+
+                @Override
+                public void onFinished() {
+                    out.flush();
+                }
+            });
+        } finally {
+            ModelRegistry.release(predictor);
+        }
+
+        if (counts[0] == 0) {
+            System.err.println("❌ Tidak ada file gambar di " + directory);
+            return EXIT_ERROR;
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.err.printf("✅ Selesai: %d gambar (%d error) dalam %.1f detik (%.1f gambar/detik)%n",
+                counts[0], counts[1], seconds, counts[0] / seconds);
+        writeMetrics(options);
+        return EXIT_OK;
+    }
+
+    private static int evaluate(Options options, PrintStream data) throws IOException {
+        File directory = options.requireDirectory();
+        String[] classNames = ModelPredictor.getClasses();
+        ModelPredictor predictor = loadModel(options);
+        if (predictor == null) {
+            return EXIT_ERROR;
+        }
+
+        PixelCache pixelCache = options.pixelCache ? PixelCache.openDefault() : null;
+        try (PrintWriter out = openOutput(options.output, data)) {
+            long start = System.nanoTime();
+            DatasetEvaluator evaluator = new DatasetEvaluator(predictor, classNames);
+            MetricsCalculator calculator = evaluator.evaluate(
+                    ImageFileScanner.forDataset(directory, classNames, options.recursive), pixelCache,
+                    (processed, total, imageFile) -> {
+                        if (processed % 100 == 0) {
+                            System.err.printf("🔄 %d/%d%n", processed, total);
+                        }
+                    }, options.workersOr(DatasetEvaluator.DEFAULT_WORKERS));
+            if (evaluator.getProcessedCount() == 0) {
+                System.err.println("❌ Tidak ada file gambar yang ditemukan di sub-folder " + directory);
+                return EXIT_ERROR;
+            }
+            out.print(calculator.getFormattedResults());
+            System.err.printf("✅ Selesai: %d gambar dalam %.1f detik%n",
+                    evaluator.getProcessedCount(), (System.nanoTime() - start) / 1e9);
+            writeMetrics(options);
+        } finally {
+            if (pixelCache != null) {
+                pixelCache.close();
+            }
+            ModelRegistry.release(predictor);
+        }
+        return EXIT_OK;
+    }
+
+    /**
+     * Simpan metrik performa (latensi per tahap, counter, antrian) sebagai JSON jika --metrics diisi
+     */
+    private static void writeMetrics(Options options) throws IOException {
+        if (options.metricsOutput == null) {
+            return;
+        }
+        Files.write(Paths.get(options.metricsOutput),
+                (PerformanceMetrics.toJson() + System.lineSeparator()).getBytes(StandardCharsets.UTF_8));
+        System.err.println("🔹 Metrik performa disimpan ke " + options.metricsOutput);
+    }
+
+    private static int serve(Options options) throws IOException {
+        ModelPredictor predictor = loadModel(options);
+        if (predictor == null) {
+            return EXIT_ERROR;
+        }
+
+        InferenceServer server;
+        try {
+            server = new InferenceServer(predictor, options.host, options.port, options.batchSize,
+                    options.windowMillis, options.threads);
+        } catch (IOException e) {
+            ModelRegistry.release(predictor);
+            throw e;
+        }
+        server.start();
+
+        // Berjalan sampai proses dihentikan (Ctrl+C / SIGTERM)
+        CountDownLatch stopped = new CountDownLatch(1);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            server.stop();
+            ModelRegistry.release(predictor);
+            stopped.countDown();
+        }, "server-shutdown"));
+        try {
+            stopped.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return EXIT_OK;
+    }
+
+    /**
+     * Jalankan pipeline batch (decode + inference) pada sampel gambar untuk setiap kombinasi
+     * thread intra-op/inter-op dan ukuran batch, karena thread TensorFlow bersaing dengan
+     * worker decode. Hasil per kombinasi ditulis sebagai CSV; yang tercepat disimpan ke profil.
+     */
+    private static int tune(Options options, PrintStream data) throws IOException {
+        File directory = options.requireDirectory();
+        List<File> sample = new ArrayList<>();
+        try (ImageFileScanner scanner = ImageFileScanner.forFolder(directory, options.recursive)) {
+            ImageFileScanner.Found found;
+            while (sample.size() < options.limit && (found = scanner.next()) != null) {
+                sample.add(found.file);
+            }
+        }
+        if (sample.isEmpty()) {
+            System.err.println("❌ Tidak ada file gambar di " + directory);
+            return EXIT_ERROR;
+        }
+
+        int cores = Runtime.getRuntime().availableProcessors();
+        List<Integer> intraOpCandidates = new ArrayList<>();
+        for (int threads = 1; threads < cores; threads *= 2) {
+            intraOpCandidates.add(threads);
+        }
+        intraOpCandidates.add(cores);
+        int[] interOpCandidates = cores > 1 ? new int[]{1, 2} : new int[]{1};
+        int[] batchCandidates = {1, 4, 8, 16, 32};
+        int workers = options.workersOr(BatchPredictionPipeline.DEFAULT_DECODE_WORKERS);
+
+        System.err.printf("🔹 Tuning pada %d core, %d gambar sampel, %d worker decode%n", cores, sample.size(), workers);
+        SessionSettings best = null;
+        int bestBatch = 0;
+        double bestThroughput = 0;
+        try (PrintWriter out = openOutput(options.output, data)) {
+            out.println("intra_op_threads,inter_op_threads,batch_size,images_per_second,errors");
+            for (int intraOp : intraOpCandidates) {
+                for (int interOp : interOpCandidates) {
+                    // Thread pool per session: tanpa ini TensorFlow memakai pool global dari
+                    // session pertama untuk semua kandidat berikutnya
+                    SessionSettings settings = new SessionSettings(intraOp, interOp, true);
+                    ModelPredictor predictor = new ModelPredictor(options.modelPath, settings);
+                    try {
+                        if (predictor.getModel() == null) {
+                            System.err.println("❌ Gagal memuat model dari " + options.modelPath);
+                            return EXIT_ERROR;
+                        }
+                        predictor.setPreprocessing(options.preprocessing);
+                        predictor.warmUp();
+                        for (int batch : batchCandidates) {
+                            if (batch > sample.size() && batch != batchCandidates[0]) {
+                                break;
+                            }
+                            int[] errors = new int[1];
+                            long start = System.nanoTime();
+                            new BatchPredictionPipeline(predictor, workers, batch,
+                                    BatchPredictionPipeline.DEFAULT_QUEUE_CAPACITY)
+                                    .run(sample, new BatchPredictionPipeline.Listener() {
+                                        @Override
+                                        public void onResult(int index, PredictionResult result) {
+                                            if (!result.isSuccess()) {
+                                                errors[0]++;
+                                            }
+                                        }
+
+                                        @Override
+                                        public void onFinished() {
+                                        }
+                                    });
+                            double throughput = sample.size() / ((System.nanoTime() - start) / 1e9);
+                            out.printf(Locale.ROOT, "%d,%d,%d,%.2f,%d%n", intraOp, interOp, batch, throughput, errors[0]);
+                            out.flush();
+                            System.err.printf("🔄 %s, batch %d: %.1f gambar/detik%n", settings, batch, throughput);
+                            if (errors[0] < sample.size() && throughput > bestThroughput) {
+                                best = settings;
+                                bestBatch = batch;
+                                bestThroughput = throughput;
+                            }
+                        }
+                    } finally {
+                        predictor.close();
+                    }
+                }
+            }
+        }
+
+        if (best == null) {
+            System.err.println("❌ Semua gambar sampel gagal diprediksi");
+            return EXIT_ERROR;
+        }
+        File profile = options.profile != null ? new File(options.profile) : SessionSettings.TUNING_FILE;
+        SessionSettings.saveTuning(profile, best, bestBatch, String.format(Locale.ROOT,
+                "Hasil tune: %.2f gambar/detik pada %d core", bestThroughput, cores));
+        System.err.printf("✅ Terbaik: %s, batch %d (%.1f gambar/detik), disimpan ke %s%n",
+                best, bestBatch, bestThroughput, profile);
+        return EXIT_OK;
+    }
+
+    private static ModelPredictor loadModel(Options options) {
+        ModelPredictor predictor;
+        try {
+            predictor = ModelRegistry.acquire(options.modelPath, options.sessionSettings());
+        } catch (CompletionException e) {
+            System.err.println("❌ Gagal memuat model dari " + options.modelPath);
+            return null;
+        }
+        predictor.setPreprocessing(options.preprocessing);
+        return predictor;
+    }
+
+    private static PrintWriter openOutput(String path, PrintStream data) throws IOException {
+        OutputStream stream = path == null ? new NonClosingOutputStream(data) : new FileOutputStream(path);
+        return new PrintWriter(new BufferedWriter(new OutputStreamWriter(stream, StandardCharsets.UTF_8)));
+    }
+
+    private static void printUsage() {
+        System.err.println("Penggunaan:");
+        System.err.println("  predict <folder>  [--format csv|jsonl] [--out FILE] [--model PATH] [--workers N] [--batch N] [--recursive] [--top N] [--metrics FILE]");
+        System.err.println("  evaluate <folder> [--out FILE] [--model PATH] [--workers N] [--pixel-cache] [--recursive] [--metrics FILE]");
+        System.err.println("  serve             [--host ADDR] [--port N] [--model PATH] [--batch N] [--window-ms N] [--threads N]");
+        System.err.println("  tune <folder>     [--model PATH] [--workers N] [--limit N] [--recursive] [--out FILE] [--profile FILE]");
+        System.err.println("Opsi thread TensorFlow (predict/evaluate/serve): [--intra-op N] [--inter-op N] [--replicas N]");
+        System.err.println("Opsi preprocessing (predict/evaluate/serve/tune): [--preprocess java|graph]");
+    }
+
+    /**
+     * Stream System.out yang tidak ikut ditutup saat writer ditutup
+     */
+    private static class NonClosingOutputStream extends FilterOutputStream {
+        NonClosingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+        }
+
+        @Override
+        public void close() throws IOException {
+            flush();
+        }
+    }
+
+    /**
+     * Opsi command-line: satu argumen posisi (folder) dan opsi --nama nilai
+     */
+    static class Options {
+        String directory;
+        String format = "csv";
+        String output;
+        String metricsOutput; // file JSON metrik performa (opsional)
+        String modelPath = ModelRegistry.DEFAULT_MODEL_PATH;
+        int workers; // 0 = default masing-masing perintah
+        int batchSize = BatchPredictionPipeline.DEFAULT_BATCH_SIZE;
+        boolean pixelCache;
+        boolean recursive;
+        int topK; // jumlah kelas teratas di output JSONL (0 = tidak ada)
+        String host = InferenceServer.DEFAULT_HOST; // default hanya loopback
+        int port = InferenceServer.DEFAULT_PORT;
+        long windowMillis = InferenceServer.DEFAULT_BATCH_WINDOW_MS;
+        int threads = InferenceServer.DEFAULT_THREADS;
+        int intraOpThreads = -1; // -1 = dari SessionSettings.DEFAULT, 0 = default TensorFlow
+        int interOpThreads = -1;
+        int replicas; // 0 = dari SessionSettings.DEFAULT
+        ModelPredictor.Preprocessing preprocessing = ModelPredictor.DEFAULT_PREPROCESSING;
+        int limit = 64; // jumlah gambar sampel untuk tune
+        String profile; // file profil tuning (default SessionSettings.TUNING_FILE)
+
+        static Options parse(String[] args) {
+            Options options = new Options();
+            Map<String, String> values = new HashMap<>();
+            for (int i = 0; i < args.length; i++) {
+                String arg = args[i];
+                if (arg.equals("--pixel-cache")) {
+                    options.pixelCache = true;
+                } else if (arg.equals("--recursive")) {
+                    options.recursive = true;
+                } else if (arg.startsWith("--")) {
+                    if (i + 1 >= args.length) {
+                        throw new IllegalArgumentException("Opsi " + arg + " membutuhkan nilai");
+                    }
+                    values.put(arg, args[++i]);
+                } else if (options.directory == null) {
+                    options.directory = arg;
+                } else {
+                    throw new IllegalArgumentException("Argumen tidak dikenal: " + arg);
+                }
+            }
+
+            for (Map.Entry<String, String> e : values.entrySet()) {
+                switch (e.getKey()) {
+                    case "--format":
+                        if (!e.getValue().equals("csv") && !e.getValue().equals("jsonl")) {
+                            throw new IllegalArgumentException("Format harus csv atau jsonl");
+                        }
+                        options.format = e.getValue();
+                        break;
+                    case "--out":
+                        options.output = e.getValue();
+                        break;
+                    case "--metrics":
+                        options.metricsOutput = e.getValue();
+                        break;
+                    case "--model":
+                        options.modelPath = e.getValue();
+                        break;
+                    case "--workers":
+                        options.workers = positiveInt(e.getKey(), e.getValue());
+                        break;
+                    case "--batch":
+                        options.batchSize = positiveInt(e.getKey(), e.getValue());
+                        break;
+                    case "--top":
+                        options.topK = intAtLeast(e.getKey(), e.getValue(), 0);
+                        break;
+                    case "--host":
+                        options.host = e.getValue();
+                        break;
+                    case "--port":
+                        options.port = positiveInt(e.getKey(), e.getValue());
+                        break;
+                    case "--window-ms":
+                        options.windowMillis = intAtLeast(e.getKey(), e.getValue(), 0);
+                        break;
+                    case "--threads":
+                        options.threads = positiveInt(e.getKey(), e.getValue());
+                        break;
+                    case "--intra-op":
+                        options.intraOpThreads = intAtLeast(e.getKey(), e.getValue(), 0);
+                        break;
+                    case "--inter-op":
+                        options.interOpThreads = intAtLeast(e.getKey(), e.getValue(), 0);
+                        break;
+                    case "--replicas":
+                        options.replicas = positiveInt(e.getKey(), e.getValue());
+                        break;
+                    case "--preprocess":
+                        options.preprocessing = ModelPredictor.Preprocessing.parse(e.getValue());
+                        break;
+                    case "--limit":
+                        options.limit = positiveInt(e.getKey(), e.getValue());
+                        break;
+                    case "--profile":
+                        options.profile = e.getValue();
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Opsi tidak dikenal: " + e.getKey());
+                }
+            }
+            return options;
+        }
+
+        SessionSettings sessionSettings() {
+            SessionSettings defaults = SessionSettings.DEFAULT;
+            return new SessionSettings(
+                    intraOpThreads >= 0 ? intraOpThreads : defaults.getIntraOpThreads(),
+                    interOpThreads >= 0 ? interOpThreads : defaults.getInterOpThreads(),
+                    defaults.isPerSessionThreads(),
+                    replicas > 0 ? replicas : defaults.getReplicas());
+        }
+
+        int workersOr(int defaultWorkers) {
+            return workers > 0 ? workers : defaultWorkers;
+        }
+
+        File requireDirectory() throws IOException {
+            if (directory == null) {
+                throw new IOException("Folder input belum diberikan");
+            }
+            File dir = new File(directory);
+            if (!dir.isDirectory()) {
+                throw new IOException("Bukan folder: " + directory);
+            }
+            return dir;
+        }
+
+        static int positiveInt(String name, String value) {
+            return intAtLeast(name, value, 1);
+        }
+
+        static int intAtLeast(String name, String value, int min) {
+            try {
+                int parsed = Integer.parseInt(value);
+                if (parsed >= min) {
+                    return parsed;
+                }
+            } catch (NumberFormatException ignored) {
+                // ditangani di bawah
+            }
+            throw new IllegalArgumentException(name + " harus bilangan bulat >= " + min);
+        }
+    }
+}
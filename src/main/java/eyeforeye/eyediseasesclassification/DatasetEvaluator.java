@@ -0,0 +1,183 @@
+package eyeforeye.eyediseasesclassification;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Evaluasi model terhadap dataset uji tanpa ketergantungan UI.
+ * Dataset berisi satu sub-folder per kelas, dengan nama sama persis seperti kelas model
+ * (lihat ImageFileScanner.forDataset).
+ * Dipakai oleh EvaluationController dan mode command-line.
+ *
+ * Confusion matrix diperbarui setiap kali satu prediksi selesai, sehingga metrik sementara
+ * bisa dibaca kapan saja lewat snapshot() selama evaluasi masih berjalan,
+ * dan evaluasi bisa dihentikan lebih awal dengan requestStop().
+ */
+public class DatasetEvaluator {
+
+    public static final int DEFAULT_WORKERS =
+            Integer.getInteger("eye.evalWorkers", Runtime.getRuntime().availableProcessors());
+
+    /**
+     * Callback progres. total adalah jumlah file yang sudah ditemukan sejauh ini.
+     * Pada evaluasi paralel dipanggil dari beberapa thread worker sekaligus.
+     */
+    public interface ProgressListener {
+        void onProgress(int processed, int total, File imageFile);
+    }
+
+    private final ModelPredictor modelPredictor;
+    private final String[] classNames;
+    private List<MetricsCalculator> shards = Collections.emptyList();
+    private final AtomicInteger processedCount = new AtomicInteger();
+    private volatile ImageFileScanner scanner;
+    private volatile boolean stopRequested;
+
+    public DatasetEvaluator(ModelPredictor modelPredictor, String[] classNames) {
+        this.modelPredictor = modelPredictor;
+        this.classNames = classNames;
+    }
+
+    /**
+     * Prediksi semua file dari scanner dan hitung metriknya. File diprediksi segera setelah
+     * ditemukan, tanpa menunggu seluruh folder selesai ditelusuri.
+     * Label aktual adalah nama root scanner (folder kelas) tempat file ditemukan.
+     * Jika requestStop() dipanggil, hasil berisi gambar yang sudah diproses saja.
+     *
+     * Dengan workers > 1, beberapa worker berbagi satu model dan mengambil file berikutnya
+     * dari scanner yang sama. Setiap worker mengisi confusion matrix shard-nya sendiri,
+     * lalu semua shard digabung. Hasil akhirnya sama persis dengan evaluasi berurutan
+     * karena jumlah di confusion matrix tidak bergantung pada urutan.
+     */
+    public MetricsCalculator evaluate(ImageFileScanner scanner, PixelCache pixelCache, ProgressListener listener,
+                                      int workers) throws IOException {
+        int workerCount = Math.max(1, workers);
+        List<MetricsCalculator> workerShards = new ArrayList<>(workerCount);
+        for (int w = 0; w < workerCount; w++) {
+            workerShards.add(new MetricsCalculator(classNames));
+        }
+        synchronized (this) {
+            shards = workerShards;
+            this.scanner = scanner;
+        }
+        processedCount.set(0);
+
+        try {
+            if (workerCount == 1) {
+                evaluateShard(scanner, workerShards.get(0), pixelCache, listener);
+            } else {
+                AtomicInteger threadCount = new AtomicInteger();
+                ExecutorService pool = Executors.newFixedThreadPool(workerCount, r -> {
+                    Thread thread = new Thread(r, "eval-worker-" + threadCount.getAndIncrement());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+                try {
+                    List<Future<?>> futures = new ArrayList<>(workerCount);
+                    for (MetricsCalculator shard : workerShards) {
+                        futures.add(pool.submit(() -> {
+                            evaluateShard(scanner, shard, pixelCache, listener);
+                            return null;
+                        }));
+                    }
+                    for (Future<?> future : futures) {
+                        future.get();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    stopRequested = true;
+                } catch (ExecutionException e) {
+                    stopRequested = true;
+                    if (e.getCause() instanceof IOException) {
+                        throw (IOException) e.getCause();
+                    }
+                    throw new IllegalStateException("Evaluasi gagal: " + e.getCause().getMessage(), e.getCause());
+                } finally {
+                    pool.shutdownNow();
+                }
+            }
+        } finally {
+            scanner.close();
+        }
+
+        return mergeShards(workerShards);
+    }
+
+    private void evaluateShard(ImageFileScanner scanner, MetricsCalculator shard,
+                               PixelCache pixelCache, ProgressListener listener) throws IOException {
+        ImageFileScanner.Found found;
+        while (!stopRequested && (found = scanner.next()) != null) {
+            File imageFile = found.file;
+            String trueLabel = found.root.getFileName().toString();
+
+            PredictionResult result = modelPredictor.predictFull(imageFile, pixelCache);
+            if (result.isSuccess()) {
+                synchronized (shard) {
+                    shard.add(trueLabel, result.getPredictedClass());
+                }
+            }
+            int processed = processedCount.incrementAndGet();
+
+            if (listener != null) {
+                listener.onProgress(processed, scanner.getFoundCount(), imageFile);
+            }
+        }
+    }
+
+    private MetricsCalculator mergeShards(List<MetricsCalculator> workerShards) {
+        MetricsCalculator merged = new MetricsCalculator(classNames);
+        for (MetricsCalculator shard : workerShards) {
+            synchronized (shard) {
+                merged.merge(shard);
+            }
+        }
+        return merged;
+    }
+
+    /**
+     * Salinan metrik sementara yang aman dibaca dari thread lain (null jika belum mulai)
+     */
+    public MetricsCalculator snapshot() {
+        List<MetricsCalculator> current;
+        synchronized (this) {
+            current = shards;
+        }
+        return current.isEmpty() ? null : mergeShards(current);
+    }
+
+    public int getProcessedCount() {
+        return processedCount.get();
+    }
+
+    /**
+     * Jumlah file yang sudah ditemukan; total sebenarnya setelah isDiscoveryFinished()
+     */
+    public int getTotalCount() {
+        ImageFileScanner current = scanner;
+        return current != null ? current.getFoundCount() : 0;
+    }
+
+    public boolean isDiscoveryFinished() {
+        ImageFileScanner current = scanner;
+        return current != null && current.isFinished();
+    }
+
+    /**
+     * Hentikan evaluasi setelah gambar yang sedang diproses selesai
+     */
+    public void requestStop() {
+        stopRequested = true;
+    }
+
+    public boolean isStopRequested() {
+        return stopRequested;
+    }
+}
@@ -3,42 +3,56 @@ package eyeforeye.eyediseasesclassification;
 import javafx.application.Platform;
 import javafx.fxml.FXML;
 import javafx.scene.control.Button;
+import javafx.scene.control.CheckBox;
 import javafx.scene.control.Label;
 import javafx.scene.control.ProgressBar;
 import javafx.scene.control.TextArea;
 import javafx.stage.DirectoryChooser;
 
 import java.io.File;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Objects;
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
 public class EvaluationController {
 
     @FXML
-    private Button selectFolderButton, evaluateButton;
+    private Button selectFolderButton, evaluateButton, stopButton;
     @FXML
     private Label folderLabel, statusLabel;
     @FXML
     private ProgressBar progressBar;
     @FXML
     private TextArea resultTextArea;
+    @FXML
+    private CheckBox pixelCacheCheckBox, parallelCheckBox, recursiveCheckBox;
 
     private File testDatasetDirectory;
     private ModelPredictor modelPredictor;
+    private CompletableFuture<ModelPredictor> modelFuture;
+    private PixelCache pixelCache; // Dibuka saat pertama kali dipakai
     private final String[] classNames = ModelPredictor.getClasses(); // Mendapat nama kelas
 
+    // Progres diperbarui paling banyak sekali per frame; teks metrik sementara cukup tiap LIVE_REFRESH_MILLIS
+    private static final int LIVE_REFRESH_MILLIS = Integer.getInteger("eye.evalRefreshMs", 500);
+    private static final double Z_95 = 1.96;
+    private DatasetEvaluator currentEvaluator;
+    private long lastMetricsRefresh;
+    private volatile File currentFile;
+
     @FXML
     public void initialize() {
         statusLabel.setText("Status: Memuat model...");
-        new Thread(() -> {
-            try {
-                modelPredictor = new ModelPredictor("saved_model");
-                Platform.runLater(() -> statusLabel.setText("Status: Model siap! Pilih folder dataset uji."));
-            } catch (Exception e) {
-                Platform.runLater(() -> statusLabel.setText("Status: Gagal memuat model! " + e.getMessage()));
+        // Model dimuat (dan di-warm-up) di latar oleh ModelRegistry
+        modelFuture = ModelRegistry.acquireAsync();
+        modelFuture.whenComplete((predictor, error) -> Platform.runLater(() -> {
+            if (error != null || predictor.getState() == ModelPredictor.State.FAILED) {
+                statusLabel.setText("Status: Gagal memuat model!" + (error != null ? " " + error.getMessage() : ""));
+                return;
             }
-        }).start();
+            modelPredictor = predictor;
+            statusLabel.setText("Status: Model siap! Pilih folder dataset uji.");
+        }));
     }
 
     @FXML
@@ -65,82 +79,150 @@ public class EvaluationController {
         // Nonaktifkan tombol
         evaluateButton.setDisable(true);
         selectFolderButton.setDisable(true);
+        stopButton.setDisable(false);
         progressBar.setVisible(true);
         progressBar.setProgress(0);
         resultTextArea.clear();
 
+        DatasetEvaluator evaluator = new DatasetEvaluator(modelPredictor, classNames);
+        currentEvaluator = evaluator;
+        ProgressPublisher<Void> publisher = new ProgressPublisher<>(items -> refreshLiveMetrics(evaluator));
+        lastMetricsRefresh = System.nanoTime();
+        publisher.start();
+
         // Jalankan di thread baru
-        new Thread(this::runEvaluationTask).start();
+        boolean usePixelCache = pixelCacheCheckBox.isSelected();
+        int workers = parallelCheckBox.isSelected() ? DatasetEvaluator.DEFAULT_WORKERS : 1;
+        boolean recursive = recursiveCheckBox.isSelected();
+        new Thread(() -> runEvaluationTask(evaluator, publisher, usePixelCache, recursive, workers)).start();
     }
 
-    private void runEvaluationTask() {
-        try {
-            List<MetricsCalculator.PredictionTuple> results = new ArrayList<>();
-            List<File> allImageFiles = new ArrayList<>();
-            
-            // 1. Kumpulkan semua file gambar DAHULU
-            for (String className : classNames) {
-                File classDir = new File(testDatasetDirectory, className);
-                if (classDir.exists() && classDir.isDirectory()) {
-                    for (File file : Objects.requireNonNull(classDir.listFiles())) {
-                        if (file.isFile() && (file.getName().endsWith(".png") || file.getName().endsWith(".jpg") || file.getName().endsWith(".jpeg"))) {
-                            allImageFiles.add(file);
-                        }
-                    }
-                }
-            }
+    @FXML
+    private void onStopClicked() {
+        DatasetEvaluator evaluator = currentEvaluator;
+        if (evaluator != null) {
+            evaluator.requestStop();
+            stopButton.setDisable(true);
+            statusLabel.setText("Status: Menghentikan evaluasi...");
+        }
+    }
 
-            int totalFiles = allImageFiles.size();
-            if (totalFiles == 0) {
-                Platform.runLater(() -> statusLabel.setText("Status: Error! Tidak ada file gambar yang ditemukan di sub-folder."));
+    /**
+     * Tampilkan progres (setiap frame yang ada perubahan) dan metrik sementara
+     * (paling sering tiap LIVE_REFRESH_MILLIS). Dipanggil ProgressPublisher di FX thread.
+     */
+    private void refreshLiveMetrics(DatasetEvaluator evaluator) {
+        int processed = evaluator.getProcessedCount();
+        int total = evaluator.getTotalCount();
+        if (total == 0) {
+            return;
+        }
+
+        // Selama folder masih ditelusuri, total hanyalah jumlah file yang sudah ditemukan
+        String totalText = evaluator.isDiscoveryFinished() ? String.valueOf(total) : total + "+";
+        progressBar.setProgress((double) processed / total);
+        File file = currentFile;
+        if (!evaluator.isStopRequested()) {
+            statusLabel.setText(String.format("Status: Memproses %d/%s... (%s)", processed, totalText,
+                    file != null ? file.getName() : ""));
+        }
+
+        long now = System.nanoTime();
+        if (now - lastMetricsRefresh < TimeUnit.MILLISECONDS.toNanos(LIVE_REFRESH_MILLIS)) {
+            return;
+        }
+        MetricsCalculator snapshot = evaluator.snapshot();
+        if (snapshot == null) {
+            return;
+        }
+        lastMetricsRefresh = now;
+        resultTextArea.setText(formatResults(snapshot,
+                String.format("--- HASIL SEMENTARA (%d/%s gambar) ---%n", processed, totalText)));
+    }
+
+    private static String formatResults(MetricsCalculator calculator, String header) {
+        double[] interval = calculator.getAccuracyInterval(Z_95);
+        return header + String.format("Akurasi 95%% CI: %.2f%% - %.2f%% (n = %d)%n%n",
+                interval[0] * 100, interval[1] * 100, calculator.getTotalSamples())
+                + calculator.getFormattedResults();
+    }
+
+    private void runEvaluationTask(DatasetEvaluator evaluator, ProgressPublisher<Void> publisher,
+                                   boolean usePixelCache, boolean recursive, int workers) {
+        try {
+            PixelCache cache = usePixelCache ? getPixelCache() : null;
+            // 1. File ditelusuri bertahap sambil diprediksi, bergiliran antar folder kelas
+            //    agar hasil sementara mewakili semua kelas
+            ImageFileScanner scanner = ImageFileScanner.forDataset(testDatasetDirectory, classNames, recursive);
+
+            // 2. Proses file (paralel jika dipilih); progres dikirim ke UI per frame oleh publisher
+            MetricsCalculator calculator = evaluator.evaluate(scanner, cache, (processed, total, imageFile) -> {
+                currentFile = imageFile;
+                publisher.update();
+            }, workers);
+
+            int processed = evaluator.getProcessedCount();
+            if (processed == 0 && !evaluator.isStopRequested()) {
+                publisher.finish(() -> {
+                    finishRun();
+                    statusLabel.setText("Status: Error! Tidak ada file gambar yang ditemukan di sub-folder.");
+                });
                 return;
             }
 
-            // 2. Proses file satu per satu dan update UI
-            for (int i = 0; i < totalFiles; i++) {
-                File imageFile = allImageFiles.get(i);
-                String trueLabel = imageFile.getParentFile().getName();
-                
-                // Update status di UI thread
-                final int currentFileIndex = i + 1;
-                Platform.runLater(() -> statusLabel.setText(String.format("Status: Memproses %d/%d... (%s)", currentFileIndex, totalFiles, imageFile.getName())));
-
-                // Lakukan prediksi
-                PredictionResult result = modelPredictor.predictFull(imageFile);
-                
-                if (result.isSuccess()) {
-                    String predictedLabel = result.getPredictedClass();
-                    results.add(new MetricsCalculator.PredictionTuple(trueLabel, predictedLabel));
-                }
-                
-                // Update progress bar di UI thread
-                final double progress = (double) currentFileIndex / totalFiles;
-                Platform.runLater(() -> progressBar.setProgress(progress));
-            }
-            
-            // 3. Hitung metrik
-            Platform.runLater(() -> statusLabel.setText("Status: Menghitung metrik..."));
-            MetricsCalculator calculator = new MetricsCalculator(results, classNames);
-            String formattedResults = calculator.getFormattedResults();
-
-            // 4. Tampilkan hasil di UI thread
-            Platform.runLater(() -> {
+            // 3. Tampilkan hasil akhir di UI thread
+            int totalFiles = evaluator.getTotalCount();
+            boolean stopped = evaluator.isStopRequested();
+            String formattedResults = formatResults(calculator, stopped
+                    ? String.format("--- DIHENTIKAN (%d/%d gambar) ---%n", processed, totalFiles)
+                    : "");
+            publisher.finish(() -> {
+                finishRun();
                 resultTextArea.setText(formattedResults);
-                statusLabel.setText(String.format("Status: Selesai! %d gambar dievaluasi.", totalFiles));
-                evaluateButton.setDisable(false);
-                selectFolderButton.setDisable(false);
-                progressBar.setVisible(false);
+                statusLabel.setText(stopped
+                        ? String.format("Status: Dihentikan! %d dari %d gambar dievaluasi.", processed, totalFiles)
+                        : String.format("Status: Selesai! %d gambar dievaluasi.", processed));
             });
 
         } catch (Exception e) {
             e.printStackTrace();
-            Platform.runLater(() -> statusLabel.setText("Status: Terjadi Error! " + e.getMessage()));
+            publisher.finish(() -> {
+                finishRun();
+                statusLabel.setText("Status: Terjadi Error! " + e.getMessage());
+            });
         }
     }
 
+    private void finishRun() {
+        currentEvaluator = null;
+        evaluateButton.setDisable(false);
+        selectFolderButton.setDisable(false);
+        stopButton.setDisable(true);
+        progressBar.setVisible(false);
+    }
+
+    private synchronized PixelCache getPixelCache() throws IOException {
+        if (pixelCache == null) {
+            pixelCache = PixelCache.openDefault();
+        }
+        return pixelCache;
+    }
+
     public void cleanup() {
-        if (modelPredictor != null) {
-            modelPredictor.close();
+        DatasetEvaluator evaluator = currentEvaluator;
+        if (evaluator != null) {
+            evaluator.requestStop();
+        }
+        if (modelFuture != null) {
+            modelFuture.thenAccept(ModelRegistry::release);
+            modelFuture = null;
+        }
+        modelPredictor = null;
+        synchronized (this) {
+            if (pixelCache != null) {
+                pixelCache.close();
+                pixelCache = null;
+            }
         }
     }
 }
\ No newline at end of file
@@ -0,0 +1,181 @@
+package eyeforeye.eyediseasesclassification;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Index path + ukuran + mtime file gambar ke key isi file (lihat PredictionCache.keyOf),
+ * disimpan append-only di folder cache agar proses berikutnya tidak perlu meng-hash ulang
+ * file yang tidak berubah. Dipakai bersama semua model dan proses di folder yang sama;
+ * entri baru ditulis di bawah kunci file. Jika file tidak bisa dibuka, index hanya di memori.
+ */
+final class FileKeyIndex implements AutoCloseable {
+
+    static final String FILE_NAME = "file-keys.bin";
+
+    private static final class FileStat {
+        private final long size;
+        private final long lastModified;
+        private final PredictionCache.Key key;
+
+        FileStat(long size, long lastModified, PredictionCache.Key key) {
+            this.size = size;
+            this.lastModified = lastModified;
+            this.key = key;
+        }
+    }
+
+    private final Map<String, FileStat> stats = new ConcurrentHashMap<>();
+    private final Path path;
+    private FileChannel channel;
+    // Akhir entri yang sudah dibaca; entri setelahnya ditulis proses/objek lain
+    private volatile long indexEnd;
+
+    FileKeyIndex(File directory) {
+        path = directory.toPath().resolve(FILE_NAME);
+        try {
+            Files.createDirectories(directory.toPath());
+            channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            FileLocks.withLock(channel, path, () -> {
+                readTail();
+                return null;
+            });
+        } catch (IOException e) {
+            System.err.println("⚠️ Index key file tidak tersedia: " + e.getMessage());
+            closeChannel();
+        }
+    }
+
+    /**
+     * Key file jika ukuran dan mtime sama dengan saat terakhir di-hash, atau null
+     */
+    PredictionCache.Key get(String filePath, long size, long lastModified) {
+        FileStat stat = stats.get(filePath);
+        if (matches(stat, size, lastModified)) {
+            return stat.key;
+        }
+        synchronized (this) {
+            // Mungkin sudah di-hash proses lain sejak index terakhir dibaca
+            try {
+                if (channel == null || channel.size() <= indexEnd) {
+                    return null;
+                }
+                FileLocks.withLock(channel, path, () -> {
+                    readTail();
+                    return null;
+                });
+            } catch (IOException e) {
+                System.err.println("⚠️ Gagal membaca index key file: " + e.getMessage());
+                closeChannel();
+                return null;
+            }
+        }
+        stat = stats.get(filePath);
+        return matches(stat, size, lastModified) ? stat.key : null;
+    }
+
+    /**
+     * Catat key hasil hash file, di memori dan di file index.
+     * Jika file index gagal ditulis, index selanjutnya hanya di memori.
+     */
+    void put(String filePath, long size, long lastModified, PredictionCache.Key key) {
+        stats.put(filePath, new FileStat(size, lastModified, key));
+
+        synchronized (this) {
+            if (channel == null) {
+                return;
+            }
+            try {
+                ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                try (DataOutputStream out = new DataOutputStream(bytes)) {
+                    out.writeUTF(filePath);
+                    out.writeLong(size);
+                    out.writeLong(lastModified);
+                    out.writeLong(key.high);
+                    out.writeLong(key.low);
+                }
+                ByteBuffer record = ByteBuffer.wrap(bytes.toByteArray());
+                FileLocks.withLock(channel, path, () -> {
+                    readTail();
+                    long position = indexEnd;
+                    while (record.hasRemaining()) {
+                        channel.write(record, position + record.position());
+                    }
+                    indexEnd = position + record.limit();
+                    return null;
+                });
+            } catch (IOException e) {
+                System.err.println("⚠️ Gagal menulis index key file: " + e.getMessage());
+                closeChannel();
+            }
+        }
+    }
+
+    private static boolean matches(FileStat stat, long size, long lastModified) {
+        return stat != null && stat.size == size && stat.lastModified == lastModified;
+    }
+
+    /**
+     * Baca entri setelah indexEnd (dipanggil sambil memegang kunci file)
+     */
+    private void readTail() throws IOException {
+        long size = channel.size();
+        if (size > indexEnd) {
+            ByteBuffer tail = ByteBuffer.allocate((int) (size - indexEnd));
+            while (tail.hasRemaining()) {
+                if (channel.read(tail, indexEnd + tail.position()) < 0) {
+                    throw new EOFException();
+                }
+            }
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(tail.array()));
+            int consumed = 0;
+            try {
+                while (in.available() > 0) {
+                    String filePath = in.readUTF();
+                    long fileSize = in.readLong();
+                    long lastModified = in.readLong();
+                    PredictionCache.Key key = new PredictionCache.Key(in.readLong(), in.readLong());
+                    stats.put(filePath, new FileStat(fileSize, lastModified, key));
+                    consumed = tail.capacity() - in.available();
+                }
+            } catch (EOFException e) {
+                // Entri terakhir terpotong, dibuang di bawah
+            }
+            indexEnd += consumed;
+        }
+
+        // Entri terakhir terpotong (proses mati saat menulis) dibuang; aman karena
+        // penulis lain selalu menulis sambil memegang kunci
+        if (channel.size() > indexEnd) {
+            channel.truncate(indexEnd);
+        }
+    }
+
+    private synchronized void closeChannel() {
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+            channel = null;
+        }
+    }
+
+    @Override
+    public void close() {
+        closeChannel();
+    }
+}
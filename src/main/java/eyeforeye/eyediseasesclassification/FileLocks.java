@@ -0,0 +1,37 @@
+package eyeforeye.eyediseasesclassification;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Kunci eksklusif file cache yang dipakai bersama oleh beberapa proses (GUI dan CLI
+ * di folder kerja yang sama) maupun beberapa objek cache dalam satu proses.
+ * FileLock berlaku per proses, sehingga dipadukan dengan monitor per path di dalam JVM.
+ */
+final class FileLocks {
+
+    interface IOAction<T> {
+        T run() throws IOException;
+    }
+
+    private static final Map<Path, Object> MONITORS = new ConcurrentHashMap<>();
+
+    private FileLocks() {
+    }
+
+    /**
+     * Jalankan action selama memegang kunci file path (channel harus dibuka dengan WRITE)
+     */
+    static <T> T withLock(FileChannel channel, Path path, IOAction<T> action) throws IOException {
+        Object monitor = MONITORS.computeIfAbsent(path.toAbsolutePath().normalize(), p -> new Object());
+        synchronized (monitor) {
+            try (FileLock lock = channel.lock()) {
+                return action.run();
+            }
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package eyeforeye.eyediseasesclassification;
+
+import org.tensorflow.Graph;
+import org.tensorflow.Result;
+import org.tensorflow.Session;
+import org.tensorflow.exceptions.TFInvalidArgumentException;
+import org.tensorflow.ndarray.NdArrays;
+import org.tensorflow.op.Ops;
+import org.tensorflow.op.core.Placeholder;
+import org.tensorflow.op.image.DecodeImage;
+import org.tensorflow.op.image.ResizeBilinear;
+import org.tensorflow.types.TFloat32;
+import org.tensorflow.types.TInt32;
+import org.tensorflow.types.TString;
+import org.tensorflow.types.TUint8;
+
+/**
+ * Preprocessing gambar di dalam graph TensorFlow (mode -Deye.preprocess=graph):
+ * byte file -> decode_image (JPEG/PNG/BMP/GIF, 3 kanal) -> resize bilinear 224x224 -> float [0,1].
+ * Semua tahap berjalan di kernel native TensorFlow, bukan ImageIO dan ImageResampler.
+ * Hasilnya tensor HWC float yang sama formatnya dengan ImageTensors.writeRgb, lalu
+ * ditumpuk ke batch input model seperti gambar dari jalur Java.
+ */
+final class GraphPreprocessor implements AutoCloseable {
+
+    private final Graph graph = new Graph();
+    private final Session session;
+    private final String input;
+    private final String output;
+    private final String shape;
+    private final int size;
+
+    GraphPreprocessor(int size) {
+        this.size = size;
+        Ops tf = Ops.create(graph);
+        Placeholder<TString> contents = tf.placeholder(TString.class);
+        DecodeImage<TUint8> decoded = tf.image.decodeImage(contents, TUint8.class,
+                DecodeImage.channels(3L), DecodeImage.expandAnimations(false));
+        ResizeBilinear resized = tf.image.resizeBilinear(
+                tf.expandDims(decoded, tf.constant(0)),
+                tf.constant(new int[]{size, size}),
+                ResizeBilinear.halfPixelCenters(true));
+        // Sama dengan ImageTensors: nilai kanal / 255
+        this.output = tf.math.div(resized, tf.constant(255.0f)).op().name();
+        this.input = contents.op().name();
+        this.shape = tf.shape(decoded).op().name();
+        this.session = new Session(graph);
+    }
+
+    /**
+     * Decode dan resize byte gambar ke dst (panjang minimal size*size*3).
+     * Lempar IllegalArgumentException jika gambar rusak, formatnya tidak dikenali,
+     * atau lebih kecil dari minSize (pesan sama dengan jalur Java).
+     */
+    void prepare(byte[] data, int minSize, float[] dst) {
+        try (TString contents = TString.tensorOfBytes(NdArrays.scalarOfObject(data));
+             Result result = session.runner()
+                     .feed(input, contents)
+                     .fetch(shape)
+                     .fetch(output)
+                     .run()) {
+            TInt32 dimensions = (TInt32) result.get(0);
+            int height = dimensions.getInt(0);
+            int width = dimensions.getInt(1);
+            if (height < minSize || width < minSize) {
+                throw new IllegalArgumentException(
+                        "Resolusi gambar terlalu kecil (< " + minSize + "x" + minSize + " pixels)");
+            }
+            ((TFloat32) result.get(1)).asRawTensor().data().asFloats().read(dst, 0, size * size * 3);
+        } catch (TFInvalidArgumentException e) {
+            throw new IllegalArgumentException("Gagal membaca gambar", e);
+        }
+    }
+
+    @Override
+    public void close() {
+        session.close();
+        graph.close();
+    }
+}
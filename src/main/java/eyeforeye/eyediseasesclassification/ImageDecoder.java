@@ -0,0 +1,132 @@
+package eyeforeye.eyediseasesclassification;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.spi.ImageReaderSpi;
+import javax.imageio.stream.FileImageInputStream;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Decoder gambar untuk preprocessing model.
+ * - Ukuran gambar dibaca dari header dulu, sehingga gambar terlalu kecil ditolak tanpa decode penuh
+ * - Gambar besar di-decode dengan source subsampling mendekati ukuran target
+ * - ImageReader dipakai ulang per thread, tanpa lookup registry ImageIO di setiap panggilan
+ */
+final class ImageDecoder {
+
+    /**
+     * Hasil decode. image bernilai null jika ukuran header di bawah batas minimum.
+     */
+    static final class Decoded {
+        final BufferedImage image;
+        final int width;
+        final int height;
+
+        Decoded(BufferedImage image, int width, int height) {
+            this.image = image;
+            this.width = width;
+            this.height = height;
+        }
+
+        boolean isTooSmall() {
+            return image == null;
+        }
+    }
+
+    // Reader yang sudah pernah dipakai thread ini, satu per format
+    private static final ThreadLocal<List<ImageReader>> READERS = ThreadLocal.withInitial(ArrayList::new);
+
+    private ImageDecoder() {
+    }
+
+    /**
+     * Decode file gambar. Mengembalikan null jika format tidak dikenali.
+     */
+    static Decoded decode(File file, int minSize, int targetWidth, int targetHeight) throws IOException {
+        try (ImageInputStream input = new FileImageInputStream(file)) {
+            return decode(input, minSize, targetWidth, targetHeight);
+        }
+    }
+
+    static Decoded decode(ImageInputStream input, int minSize, int targetWidth, int targetHeight) throws IOException {
+        ImageReader reader = readerFor(input);
+        if (reader == null) {
+            return null;
+        }
+
+        boolean ok = false;
+        try {
+            reader.setInput(input, true, true);
+            int width = reader.getWidth(0);
+            int height = reader.getHeight(0);
+            if (width < minSize || height < minSize) {
+                ok = true;
+                return new Decoded(null, width, height);
+            }
+
+            ImageReadParam param = reader.getDefaultReadParam();
+            int factor = subsamplingFactor(width, height, targetWidth, targetHeight);
+            if (factor > 1) {
+                param.setSourceSubsampling(factor, factor, 0, 0);
+            }
+            BufferedImage image = reader.read(0, param);
+            ok = true;
+            return new Decoded(image, width, height);
+        } finally {
+            if (ok) {
+                reader.setInput(null);
+            } else {
+                // Reader yang gagal di tengah decode tidak dipakai ulang
+                READERS.get().remove(reader);
+                reader.dispose();
+            }
+        }
+    }
+
+    /**
+     * Faktor subsampling terbesar yang tetap menyisakan minimal 2x ukuran target,
+     * agar resize area-averaging setelahnya tetap punya cukup piksel sumber.
+     */
+    static int subsamplingFactor(int width, int height, int targetWidth, int targetHeight) {
+        int factor = Math.min(width / (2 * targetWidth), height / (2 * targetHeight));
+        return Math.max(1, factor);
+    }
+
+    private static ImageReader readerFor(ImageInputStream input) throws IOException {
+        List<ImageReader> readers = READERS.get();
+        for (ImageReader reader : readers) {
+            if (canDecode(reader.getOriginatingProvider(), input)) {
+                return reader;
+            }
+        }
+
+        Iterator<ImageReader> candidates = ImageIO.getImageReaders(input);
+        if (!candidates.hasNext()) {
+            return null;
+        }
+        ImageReader reader = candidates.next();
+        readers.add(reader);
+        return reader;
+    }
+
+    private static boolean canDecode(ImageReaderSpi provider, ImageInputStream input) throws IOException {
+        if (provider == null) {
+            return false;
+        }
+        long start = input.getStreamPosition();
+        try {
+            return provider.canDecodeInput(input);
+        } catch (IOException e) {
+            // File lebih pendek dari signature format (misalnya file rusak)
+            input.seek(start);
+            return false;
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package eyeforeye.eyediseasesclassification;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * Penelusuran file gambar secara bertahap (lazy) untuk folder yang sangat besar.
+ * File dikirim ke pemakai (pipeline/evaluator) segera setelah ditemukan, tanpa
+ * mengumpulkan seluruh isi folder ke dalam list terlebih dahulu.
+ *
+ * Beberapa root (misalnya satu folder per kelas) ditelusuri bergiliran (round-robin),
+ * sehingga hasil sementara evaluasi sudah mewakili semua kelas.
+ * next() aman dipanggil dari beberapa thread worker sekaligus.
+ */
+public final class ImageFileScanner implements AutoCloseable {
+
+    /**
+     * File gambar yang ditemukan beserta root asalnya dan nomor urut penemuan
+     */
+    public static final class Found {
+        public final File file;
+        public final Path root;
+        public final int index;
+
+        Found(File file, Path root, int index) {
+            this.file = file;
+            this.root = root;
+            this.index = index;
+        }
+    }
+
+    private final boolean recursive;
+    private final List<RootCursor> active = new ArrayList<>();
+    private final AtomicInteger foundCount = new AtomicInteger();
+    private volatile boolean finished;
+    private int cursor;
+
+    public ImageFileScanner(List<Path> roots, boolean recursive) {
+        this.recursive = recursive;
+        for (Path root : roots) {
+            active.add(new RootCursor(root));
+        }
+        finished = active.isEmpty();
+    }
+
+    /**
+     * Scanner untuk satu folder gambar (tab batch, perintah predict)
+     */
+    public static ImageFileScanner forFolder(File directory, boolean recursive) {
+        List<Path> roots = new ArrayList<>();
+        roots.add(directory.toPath());
+        return new ImageFileScanner(roots, recursive);
+    }
+
+    /**
+     * Scanner untuk dataset uji: satu root per sub-folder kelas yang ada.
+     * Nama root sama dengan nama kelas, sehingga menjadi label aktual setiap file.
+     */
+    public static ImageFileScanner forDataset(File datasetDirectory, String[] classNames, boolean recursive) {
+        List<Path> roots = new ArrayList<>();
+        for (String className : classNames) {
+            File classDir = new File(datasetDirectory, className);
+            if (classDir.isDirectory()) {
+                roots.add(classDir.toPath());
+            }
+        }
+        return new ImageFileScanner(roots, recursive);
+    }
+
+    /**
+     * Ekstensi .png/.jpg/.jpeg tanpa membedakan huruf besar/kecil
+     */
+    public static boolean isImageFile(Path path) {
+        Path fileName = path.getFileName();
+        if (fileName == null) {
+            return false;
+        }
+        String name = fileName.toString().toLowerCase(Locale.ROOT);
+        return name.endsWith(".png") || name.endsWith(".jpg") || name.endsWith(".jpeg");
+    }
+
+    /**
+     * File gambar berikutnya, atau null jika semua root sudah habis ditelusuri
+     */
+    public synchronized Found next() throws IOException {
+        while (!active.isEmpty()) {
+            int i = cursor % active.size();
+            RootCursor root = active.get(i);
+            Path path = root.nextImage();
+            if (path == null) {
+                root.close();
+                active.remove(i);
+                cursor = i; // root berikutnya bergeser ke posisi i
+                continue;
+            }
+            cursor = i + 1;
+            return new Found(path.toFile(), root.root, foundCount.getAndIncrement());
+        }
+        finished = true;
+        return null;
+    }
+
+    /**
+     * Jumlah file gambar yang sudah ditemukan sejauh ini (perkiraan total selama belum selesai)
+     */
+    public int getFoundCount() {
+        return foundCount.get();
+    }
+
+    /**
+     * True jika penelusuran selesai dan getFoundCount() adalah total sebenarnya
+     */
+    public boolean isFinished() {
+        return finished;
+    }
+
+    @Override
+    public synchronized void close() {
+        for (RootCursor root : active) {
+            root.close();
+        }
+        active.clear();
+        finished = true;
+    }
+
+    /**
+     * Penelusuran satu root: newDirectoryStream untuk satu level, Files.walk untuk rekursif.
+     * Stream baru dibuka saat file pertamanya diminta.
+     */
+    private final class RootCursor implements Closeable {
+        private final Path root;
+        private Closeable stream;
+        private Iterator<Path> paths;
+
+        RootCursor(Path root) {
+            this.root = root;
+        }
+
+        Path nextImage() throws IOException {
+            try {
+                if (paths == null) {
+                    open();
+                }
+                while (paths.hasNext()) {
+                    Path path = paths.next();
+                    // Cek ekstensi dulu; stat file hanya untuk kandidat gambar
+                    if (isImageFile(path) && Files.isRegularFile(path)) {
+                        return path;
+                    }
+                }
+                return null;
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            } catch (RuntimeException e) {
+                // DirectoryIteratorException membungkus IOException dari DirectoryStream
+                if (e.getCause() instanceof IOException) {
+                    throw (IOException) e.getCause();
+                }
+                throw e;
+            }
+        }
+
+        private void open() throws IOException {
+            if (recursive) {
+                Stream<Path> walk = Files.walk(root);
+                stream = walk::close;
+                paths = walk.iterator();
+            } else {
+                DirectoryStream<Path> directory = Files.newDirectoryStream(root);
+                stream = directory;
+                paths = directory.iterator();
+            }
+        }
+
+        @Override
+        public void close() {
+            if (stream != null) {
+                try {
+                    stream.close();
+                } catch (IOException e) {
+                    e.printStackTrace();
+                }
+                stream = null;
+            }
+        }
+    }
+}
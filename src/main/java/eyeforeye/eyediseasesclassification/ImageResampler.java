@@ -0,0 +1,251 @@
+package eyeforeye.eyediseasesclassification;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.ComponentSampleModel;
+import java.awt.image.DataBuffer;
+import java.awt.image.DataBufferByte;
+import java.awt.image.DataBufferInt;
+import java.awt.image.Raster;
+import java.awt.image.SampleModel;
+import java.awt.image.SinglePixelPackedSampleModel;
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+/**
+ * Resize gambar ke ukuran input model tanpa Java2D.
+ * - Area-averaging (box filter) untuk downscale besar, misalnya foto fundus 3000x3000
+ * - Bilinear untuk skala lainnya
+ * Seluruh perhitungan memakai aritmetika integer sehingga hasilnya identik di semua JDK.
+ * Gambar besar diproses paralel per baris output.
+ */
+final class ImageResampler {
+
+    /** Jumlah piksel sumber minimum sebelum resize dijalankan paralel */
+    static final long PARALLEL_THRESHOLD = Long.getLong("eye.resizeParallelThreshold", 1_000_000L);
+
+    private static final int WEIGHT_BITS = 8;
+    private static final int WEIGHT_ONE = 1 << WEIGHT_BITS;
+
+    // Buffer baris per thread (dua baris untuk bilinear)
+    private static final ThreadLocal<int[][]> ROW_SCRATCH = ThreadLocal.withInitial(() -> new int[][]{new int[0], new int[0]});
+    private static final ThreadLocal<int[]> SUM_SCRATCH = ThreadLocal.withInitial(() -> new int[0]);
+
+    private ImageResampler() {
+    }
+
+    /**
+     * Resize gambar menjadi TYPE_INT_RGB berukuran width x height
+     */
+    static BufferedImage resize(BufferedImage source, int width, int height) {
+        BufferedImage target = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        int[] dst = ((DataBufferInt) target.getRaster().getDataBuffer()).getData();
+        RowReader reader = RowReader.of(source);
+        int srcW = source.getWidth();
+        int srcH = source.getHeight();
+        boolean parallel = (long) srcW * srcH >= PARALLEL_THRESHOLD;
+
+        if (useAreaAveraging(srcW, srcH, width, height)) {
+            int[] colStart = boxStarts(srcW, width);
+            int[] rowStart = boxStarts(srcH, height);
+            forEachRow(height, parallel, dy -> areaRow(reader, srcW, colStart, rowStart, width, dy, dst));
+        } else {
+            int[] x0 = new int[width];
+            int[] x1 = new int[width];
+            int[] wx = new int[width];
+            int[] y0 = new int[height];
+            int[] y1 = new int[height];
+            int[] wy = new int[height];
+            bilinearTaps(srcW, width, x0, x1, wx);
+            bilinearTaps(srcH, height, y0, y1, wy);
+            forEachRow(height, parallel, dy -> bilinearRow(reader, srcW, x0, x1, wx,
+                    y0[dy], y1[dy], wy[dy], width, dy, dst));
+        }
+        return target;
+    }
+
+    static boolean useAreaAveraging(int srcW, int srcH, int dstW, int dstH) {
+        return srcW >= dstW && srcH >= dstH && (srcW >= 2 * dstW || srcH >= 2 * dstH);
+    }
+
+    private static void forEachRow(int height, boolean parallel, IntConsumer row) {
+        IntStream rows = IntStream.range(0, height);
+        if (parallel) {
+            rows = rows.parallel();
+        }
+        rows.forEach(row);
+    }
+
+    /**
+     * Batas awal tiap kotak sumber; kotak dy mencakup [start[dy], start[dy + 1])
+     */
+    private static int[] boxStarts(int srcSize, int dstSize) {
+        int[] start = new int[dstSize + 1];
+        for (int d = 0; d <= dstSize; d++) {
+            start[d] = (int) ((long) d * srcSize / dstSize);
+        }
+        return start;
+    }
+
+    private static void areaRow(RowReader reader, int srcW, int[] colStart, int[] rowStart,
+                                int dstW, int dy, int[] dst) {
+        int[] row = rowBuffer(0, srcW);
+        int[] sums = SUM_SCRATCH.get();
+        if (sums.length < dstW * 3) {
+            sums = new int[dstW * 3];
+            SUM_SCRATCH.set(sums);
+        }
+        Arrays.fill(sums, 0, dstW * 3, 0);
+
+        int sy0 = rowStart[dy];
+        int sy1 = rowStart[dy + 1];
+        for (int sy = sy0; sy < sy1; sy++) {
+            reader.read(sy, row);
+            for (int dx = 0; dx < dstW; dx++) {
+                int r = 0;
+                int g = 0;
+                int b = 0;
+                for (int sx = colStart[dx], end = colStart[dx + 1]; sx < end; sx++) {
+                    int pixel = row[sx];
+                    r += (pixel >> 16) & 0xFF;
+                    g += (pixel >> 8) & 0xFF;
+                    b += pixel & 0xFF;
+                }
+                int s = dx * 3;
+                sums[s] += r;
+                sums[s + 1] += g;
+                sums[s + 2] += b;
+            }
+        }
+
+        int out = dy * dstW;
+        int rows = sy1 - sy0;
+        for (int dx = 0; dx < dstW; dx++) {
+            int count = (colStart[dx + 1] - colStart[dx]) * rows;
+            int half = count >> 1;
+            int s = dx * 3;
+            int r = (sums[s] + half) / count;
+            int g = (sums[s + 1] + half) / count;
+            int b = (sums[s + 2] + half) / count;
+            dst[out + dx] = (r << 16) | (g << 8) | b;
+        }
+    }
+
+    /**
+     * Posisi sampel bilinear dengan pusat piksel di +0.5 dan bobot fixed-point 8 bit
+     */
+    private static void bilinearTaps(int srcSize, int dstSize, int[] lo, int[] hi, int[] weight) {
+        for (int d = 0; d < dstSize; d++) {
+            // posisi sumber dalam satuan 1/WEIGHT_ONE piksel
+            long pos = ((2L * d + 1) * srcSize * WEIGHT_ONE) / (2L * dstSize) - WEIGHT_ONE / 2;
+            if (pos < 0) {
+                pos = 0;
+            }
+            int i0 = (int) (pos >> WEIGHT_BITS);
+            int w = (int) (pos & (WEIGHT_ONE - 1));
+            if (i0 >= srcSize - 1) {
+                i0 = srcSize - 1;
+                w = 0;
+            }
+            lo[d] = i0;
+            hi[d] = Math.min(i0 + 1, srcSize - 1);
+            weight[d] = w;
+        }
+    }
+
+    private static void bilinearRow(RowReader reader, int srcW, int[] x0, int[] x1, int[] wx,
+                                    int y0, int y1, int wy, int dstW, int dy, int[] dst) {
+        int[] top = rowBuffer(0, srcW);
+        int[] bottom = rowBuffer(1, srcW);
+        reader.read(y0, top);
+        if (y1 != y0) {
+            reader.read(y1, bottom);
+        } else {
+            System.arraycopy(top, 0, bottom, 0, srcW);
+        }
+
+        int out = dy * dstW;
+        for (int dx = 0; dx < dstW; dx++) {
+            int w = wx[dx];
+            int a = top[x0[dx]];
+            int b = top[x1[dx]];
+            int c = bottom[x0[dx]];
+            int d = bottom[x1[dx]];
+            int r = lerp2(a >> 16, b >> 16, c >> 16, d >> 16, w, wy);
+            int g = lerp2(a >> 8, b >> 8, c >> 8, d >> 8, w, wy);
+            int bl = lerp2(a, b, c, d, w, wy);
+            dst[out + dx] = (r << 16) | (g << 8) | bl;
+        }
+    }
+
+    private static int lerp2(int a, int b, int c, int d, int wx, int wy) {
+        a &= 0xFF;
+        b &= 0xFF;
+        c &= 0xFF;
+        d &= 0xFF;
+        int top = a * (WEIGHT_ONE - wx) + b * wx;
+        int bottom = c * (WEIGHT_ONE - wx) + d * wx;
+        return (top * (WEIGHT_ONE - wy) + bottom * wy + (1 << (2 * WEIGHT_BITS - 1))) >> (2 * WEIGHT_BITS);
+    }
+
+    private static int[] rowBuffer(int slot, int width) {
+        int[][] rows = ROW_SCRATCH.get();
+        if (rows[slot].length < width) {
+            rows[slot] = new int[width];
+        }
+        return rows[slot];
+    }
+
+    /**
+     * Pembaca satu baris piksel sumber sebagai RGB terpaket (0xRRGGBB)
+     */
+    private interface RowReader {
+        void read(int y, int[] row);
+
+        static RowReader of(BufferedImage image) {
+            Raster raster = image.getRaster();
+            SampleModel sampleModel = raster.getSampleModel();
+            DataBuffer dataBuffer = raster.getDataBuffer();
+            int type = image.getType();
+            int width = image.getWidth();
+
+            if ((type == BufferedImage.TYPE_INT_RGB || type == BufferedImage.TYPE_INT_ARGB)
+                    && dataBuffer instanceof DataBufferInt
+                    && sampleModel instanceof SinglePixelPackedSampleModel) {
+                int stride = ((SinglePixelPackedSampleModel) sampleModel).getScanlineStride();
+                int[] pixels = ((DataBufferInt) dataBuffer).getData();
+                int base = dataBuffer.getOffset()
+                        - raster.getSampleModelTranslateY() * stride
+                        - raster.getSampleModelTranslateX();
+                return (y, row) -> System.arraycopy(pixels, base + y * stride, row, 0, width);
+            }
+
+            if (type == BufferedImage.TYPE_3BYTE_BGR
+                    && dataBuffer instanceof DataBufferByte
+                    && sampleModel instanceof ComponentSampleModel) {
+                ComponentSampleModel csm = (ComponentSampleModel) sampleModel;
+                int stride = csm.getScanlineStride();
+                int pixelStride = csm.getPixelStride();
+                int[] bandOffsets = csm.getBandOffsets();
+                int rOffset = bandOffsets[0];
+                int gOffset = bandOffsets[1];
+                int bOffset = bandOffsets[2];
+                byte[] bytes = ((DataBufferByte) dataBuffer).getData();
+                int base = dataBuffer.getOffset()
+                        - raster.getSampleModelTranslateY() * stride
+                        - raster.getSampleModelTranslateX() * pixelStride;
+                return (y, row) -> {
+                    int p = base + y * stride;
+                    for (int x = 0; x < width; x++) {
+                        row[x] = ((bytes[p + rOffset] & 0xFF) << 16)
+                                | ((bytes[p + gOffset] & 0xFF) << 8)
+                                | (bytes[p + bOffset] & 0xFF);
+                        p += pixelStride;
+                    }
+                };
+            }
+
+            return (y, row) -> image.getRGB(0, y, width, 1, row, 0, width);
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package eyeforeye.eyediseasesclassification;
+
+import org.tensorflow.ndarray.buffer.FloatDataBuffer;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.ComponentSampleModel;
+import java.awt.image.DataBuffer;
+import java.awt.image.DataBufferByte;
+import java.awt.image.DataBufferInt;
+import java.awt.image.Raster;
+import java.awt.image.SampleModel;
+import java.awt.image.SinglePixelPackedSampleModel;
+import java.nio.ByteBuffer;
+
+/**
+ * Konversi piksel BufferedImage ke data tensor RGB float [0,1].
+ * Membaca array int[]/byte[] milik raster secara langsung (tanpa getRGB per piksel)
+ * dan menormalisasi memakai lookup table.
+ */
+final class ImageTensors {
+
+    /** NORMALIZE[v] == v / 255f untuk semua nilai kanal 0..255 */
+    private static final float[] NORMALIZE = new float[256];
+
+    static {
+        for (int i = 0; i < NORMALIZE.length; i++) {
+            NORMALIZE[i] = i / 255.0f;
+        }
+    }
+
+    // Buffer kerja per thread, dipakai ulang antar gambar
+    private static final ThreadLocal<float[]> FLOAT_SCRATCH = ThreadLocal.withInitial(() -> new float[0]);
+    private static final ThreadLocal<int[]> ROW_SCRATCH = ThreadLocal.withInitial(() -> new int[0]);
+
+    private ImageTensors() {
+    }
+
+    /**
+     * Tulis gambar sebagai float RGB (HWC) ke buffer tensor mulai dari posisi offset
+     */
+    static void writeRgb(BufferedImage img, FloatDataBuffer dst, long offset) {
+        int size = img.getWidth() * img.getHeight() * 3;
+        float[] data = FLOAT_SCRATCH.get();
+        if (data.length < size) {
+            data = new float[size];
+            FLOAT_SCRATCH.set(data);
+        }
+        toRgbFloats(img, data, 0);
+        dst.offset(offset).write(data, 0, size);
+    }
+
+    /**
+     * Tulis piksel RGB uint8 (HWC, misalnya dari PixelCache) sebagai float ke buffer tensor
+     */
+    static void writeRgbBytes(ByteBuffer pixels, FloatDataBuffer dst, long offset) {
+        int size = pixels.remaining();
+        float[] data = FLOAT_SCRATCH.get();
+        if (data.length < size) {
+            data = new float[size];
+            FLOAT_SCRATCH.set(data);
+        }
+        int start = pixels.position();
+        for (int i = 0; i < size; i++) {
+            data[i] = NORMALIZE[pixels.get(start + i) & 0xFF];
+        }
+        dst.offset(offset).write(data, 0, size);
+    }
+
+    /**
+     * Isi array float dengan nilai RGB ternormalisasi, memilih jalur tercepat sesuai tipe gambar
+     */
+    static void toRgbFloats(BufferedImage img, float[] dst, int dstOffset) {
+        Raster raster = img.getRaster();
+        SampleModel sampleModel = raster.getSampleModel();
+        DataBuffer dataBuffer = raster.getDataBuffer();
+        int type = img.getType();
+
+        if ((type == BufferedImage.TYPE_INT_RGB || type == BufferedImage.TYPE_INT_ARGB)
+                && dataBuffer instanceof DataBufferInt
+                && sampleModel instanceof SinglePixelPackedSampleModel) {
+            intRgbToFloats(raster, (SinglePixelPackedSampleModel) sampleModel, (DataBufferInt) dataBuffer, dst, dstOffset);
+        } else if (type == BufferedImage.TYPE_3BYTE_BGR
+                && dataBuffer instanceof DataBufferByte
+                && sampleModel instanceof ComponentSampleModel) {
+            byteBgrToFloats(raster, (ComponentSampleModel) sampleModel, (DataBufferByte) dataBuffer, dst, dstOffset);
+        } else {
+            genericToFloats(img, dst, dstOffset);
+        }
+    }
+
+    private static void intRgbToFloats(Raster raster, SinglePixelPackedSampleModel sampleModel,
+                                       DataBufferInt dataBuffer, float[] dst, int dstOffset) {
+        int width = raster.getWidth();
+        int height = raster.getHeight();
+        int stride = sampleModel.getScanlineStride();
+        int[] pixels = dataBuffer.getData();
+        int base = dataBuffer.getOffset()
+                - raster.getSampleModelTranslateY() * stride
+                - raster.getSampleModelTranslateX();
+
+        int index = dstOffset;
+        for (int y = 0; y < height; y++) {
+            int p = base + y * stride;
+            for (int x = 0; x < width; x++) {
+                int pixel = pixels[p++];
+                dst[index++] = NORMALIZE[(pixel >> 16) & 0xFF];
+                dst[index++] = NORMALIZE[(pixel >> 8) & 0xFF];
+                dst[index++] = NORMALIZE[pixel & 0xFF];
+            }
+        }
+    }
+
+    private static void byteBgrToFloats(Raster raster, ComponentSampleModel sampleModel,
+                                        DataBufferByte dataBuffer, float[] dst, int dstOffset) {
+        int width = raster.getWidth();
+        int height = raster.getHeight();
+        int stride = sampleModel.getScanlineStride();
+        int pixelStride = sampleModel.getPixelStride();
+        int[] bandOffsets = sampleModel.getBandOffsets();
+        int rOffset = bandOffsets[0];
+        int gOffset = bandOffsets[1];
+        int bOffset = bandOffsets[2];
+        byte[] bytes = dataBuffer.getData();
+        int base = dataBuffer.getOffset()
+                - raster.getSampleModelTranslateY() * stride
+                - raster.getSampleModelTranslateX() * pixelStride;
+
+        int index = dstOffset;
+        for (int y = 0; y < height; y++) {
+            int p = base + y * stride;
+            for (int x = 0; x < width; x++) {
+                dst[index++] = NORMALIZE[bytes[p + rOffset] & 0xFF];
+                dst[index++] = NORMALIZE[bytes[p + gOffset] & 0xFF];
+                dst[index++] = NORMALIZE[bytes[p + bOffset] & 0xFF];
+                p += pixelStride;
+            }
+        }
+    }
+
+    private static void genericToFloats(BufferedImage img, float[] dst, int dstOffset) {
+        int width = img.getWidth();
+        int height = img.getHeight();
+        int[] row = ROW_SCRATCH.get();
+        if (row.length < width) {
+            row = new int[width];
+            ROW_SCRATCH.set(row);
+        }
+
+        int index = dstOffset;
+        for (int y = 0; y < height; y++) {
+            img.getRGB(0, y, width, 1, row, 0, width);
+            for (int x = 0; x < width; x++) {
+                int pixel = row[x];
+                dst[index++] = NORMALIZE[(pixel >> 16) & 0xFF];
+                dst[index++] = NORMALIZE[(pixel >> 8) & 0xFF];
+                dst[index++] = NORMALIZE[pixel & 0xFF];
+            }
+        }
+    }
+}
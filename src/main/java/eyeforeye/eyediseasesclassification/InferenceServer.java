@@ -0,0 +1,342 @@
+package eyeforeye.eyediseasesclassification;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Server HTTP (JDK HttpServer) untuk prediksi dari aplikasi lain:
+ *   POST /predict        body = isi file gambar, nama file lewat ?name= (opsional)
+ *   POST /predict/batch  multipart/form-data, satu part berisi satu file gambar
+ *   GET  /metrics        metrik performa (PerformanceMetrics) dalam JSON
+ * Parameter ?top=K (opsional) menambahkan K kelas teratas ke setiap hasil.
+ * Request yang datang bersamaan digabung menjadi satu session.run oleh MicroBatcher.
+ * Respons berupa JSON dengan field yang sama seperti PredictionResult.
+ * Endpoint tidak memakai autentikasi, jadi server default hanya mendengarkan loopback;
+ * gunakan --host (atau -Deye.serverHost) untuk membukanya ke jaringan.
+ */
+public class InferenceServer {
+
+    public static final String DEFAULT_HOST = System.getProperty("eye.serverHost",
+            InetAddress.getLoopbackAddress().getHostAddress());
+    public static final int DEFAULT_PORT = Integer.getInteger("eye.serverPort", 8080);
+    public static final int DEFAULT_BATCH_WINDOW_MS = Integer.getInteger("eye.batchWindowMs", 5);
+    public static final int DEFAULT_THREADS = Integer.getInteger("eye.serverThreads", 16);
+    private static final int MAX_UPLOAD_BYTES = Integer.getInteger("eye.maxUploadBytes", 64 * 1024 * 1024);
+    private static final long RESPONSE_TIMEOUT_SECONDS = 60;
+
+    private final ModelPredictor modelPredictor;
+    private final String host;
+    private final HttpServer server;
+    private final ExecutorService handlers;
+    // Decode part /predict/batch secara paralel (terpisah dari thread handler agar tidak saling tunggu)
+    private final ExecutorService preparers;
+    private final MicroBatcher batcher;
+
+    public InferenceServer(ModelPredictor modelPredictor, String host, int port, int maxBatchSize,
+                           long windowMillis, int threads) throws IOException {
+        this.modelPredictor = modelPredictor;
+        this.host = host;
+        this.batcher = new MicroBatcher(modelPredictor, maxBatchSize, windowMillis);
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.handlers = Executors.newFixedThreadPool(threads, r -> {
+            Thread thread = new Thread(r, "http-" + threadCount.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        AtomicInteger prepareCount = new AtomicInteger();
+        this.preparers = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), r -> {
+            Thread thread = new Thread(r, "http-prepare-" + prepareCount.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        this.server = HttpServer.create(new InetSocketAddress(host, port), 0);
+        this.server.setExecutor(handlers);
+        this.server.createContext("/predict/batch", exchange -> handle(exchange, "POST", this::predictBatch));
+        this.server.createContext("/predict", exchange -> handle(exchange, "POST", this::predictSingle));
+        this.server.createContext("/metrics", exchange -> handle(exchange, "GET",
+                e -> sendJson(e, 200, PerformanceMetrics.toJson())));
+    }
+
+    public void start() {
+        server.start();
+        System.out.println("✅ Server prediksi berjalan di http://" + host + ":" + getPort());
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Berhenti menerima request, tunggu request aktif maksimal 2 detik, lalu hentikan batcher
+     */
+    public void stop() {
+        server.stop(2);
+        batcher.close();
+        preparers.shutdownNow();
+        handlers.shutdownNow();
+        System.out.println("🔹 Server prediksi berhenti");
+    }
+
+    private interface Endpoint {
+        void handle(HttpExchange exchange) throws IOException;
+    }
+
+    private void handle(HttpExchange exchange, String method, Endpoint endpoint) throws IOException {
+        try {
+            if (!method.equals(exchange.getRequestMethod())) {
+                sendError(exchange, 405, "Gunakan metode " + method);
+                return;
+            }
+            endpoint.handle(exchange);
+        } catch (HttpError e) {
+            sendError(exchange, e.status, e.getMessage());
+        } catch (Exception e) {
+            e.printStackTrace();
+            sendError(exchange, 500, "Error: " + e.getMessage());
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void predictSingle(HttpExchange exchange) throws IOException {
+        if (!"/predict".equals(exchange.getRequestURI().getPath())) {
+            throw new HttpError(404, "Endpoint tidak dikenal");
+        }
+        String name = queryParameter(exchange, "name");
+        byte[] body = readBody(exchange);
+        File imageFile = new File(name != null ? name : "upload");
+
+        PredictionResult result = await(batcher.submit(() -> modelPredictor.prepareBytes(imageFile, body)), imageFile);
+        sendJson(exchange, result.isSuccess() ? 200 : 422, PredictionFormats.toJson(result, topK(exchange)));
+    }
+
+    private void predictBatch(HttpExchange exchange) throws IOException {
+        String boundary = boundaryOf(exchange.getRequestHeaders().getFirst("Content-Type"));
+        List<Part> parts = parseMultipart(readBody(exchange), boundary);
+        if (parts.isEmpty()) {
+            throw new HttpError(400, "Tidak ada file gambar dalam request");
+        }
+
+        // Semua part disiapkan paralel dan diantrikan agar bisa masuk ke batch yang sama
+        List<CompletableFuture<PredictionResult>> futures = new ArrayList<>(parts.size());
+        for (Part part : parts) {
+            File imageFile = new File(part.fileName);
+            futures.add(CompletableFuture
+                    .supplyAsync(() -> batcher.submit(() -> modelPredictor.prepareBytes(imageFile, part.data)), preparers)
+                    .thenCompose(future -> future));
+        }
+
+        int topK = topK(exchange);
+        StringBuilder json = new StringBuilder("[");
+        for (int i = 0; i < futures.size(); i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append(PredictionFormats.toJson(await(futures.get(i), new File(parts.get(i).fileName)), topK));
+        }
+        sendJson(exchange, 200, json.append(']').toString());
+    }
+
+    private static int topK(HttpExchange exchange) throws HttpError {
+        String value = queryParameter(exchange, "top");
+        if (value == null) {
+            return 0;
+        }
+        try {
+            int topK = Integer.parseInt(value);
+            if (topK >= 0) {
+                return topK;
+            }
+        } catch (NumberFormatException ignored) {
+            // ditangani di bawah
+        }
+        throw new HttpError(400, "Parameter top harus bilangan bulat >= 0");
+    }
+
+    private static PredictionResult await(CompletableFuture<PredictionResult> future, File imageFile) {
+        try {
+            return future.get(RESPONSE_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new PredictionResult(imageFile, "Server sedang berhenti");
+        } catch (Exception e) {
+            return new PredictionResult(imageFile, "Error: " + e.getMessage());
+        }
+    }
+
+    private static byte[] readBody(HttpExchange exchange) throws IOException {
+        try (InputStream in = exchange.getRequestBody()) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[64 * 1024];
+            int read;
+            while ((read = in.read(buffer)) > 0) {
+                if (out.size() + read > MAX_UPLOAD_BYTES) {
+                    throw new HttpError(413, "Ukuran upload melebihi " + MAX_UPLOAD_BYTES + " byte");
+                }
+                out.write(buffer, 0, read);
+            }
+            if (out.size() == 0) {
+                throw new HttpError(400, "Body request kosong");
+            }
+            return out.toByteArray();
+        }
+    }
+
+    private static String queryParameter(HttpExchange exchange, String name) {
+        String query = exchange.getRequestURI().getRawQuery();
+        if (query == null) {
+            return null;
+        }
+        for (String pair : query.split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq > 0 && pair.substring(0, eq).equals(name)) {
+                return URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8);
+            }
+        }
+        return null;
+    }
+
+    private static void sendError(HttpExchange exchange, int status, String message) throws IOException {
+        sendJson(exchange, status, "{\"status\":\"ERROR\",\"error\":" + PredictionFormats.jsonString(message) + "}");
+    }
+
+    private static void sendJson(HttpExchange exchange, int status, String json) throws IOException {
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    // ===== multipart/form-data =====
+
+    static final class Part {
+        final String fileName;
+        final byte[] data;
+
+        Part(String fileName, byte[] data) {
+            this.fileName = fileName;
+            this.data = data;
+        }
+    }
+
+    static String boundaryOf(String contentType) throws HttpError {
+        if (contentType != null && contentType.toLowerCase().startsWith("multipart/form-data")) {
+            for (String param : contentType.split(";")) {
+                param = param.trim();
+                if (param.startsWith("boundary=")) {
+                    String boundary = param.substring("boundary=".length());
+                    if (boundary.length() > 1 && boundary.startsWith("\"") && boundary.endsWith("\"")) {
+                        boundary = boundary.substring(1, boundary.length() - 1);
+                    }
+                    if (!boundary.isEmpty()) {
+                        return boundary;
+                    }
+                }
+            }
+        }
+        throw new HttpError(400, "Content-Type harus multipart/form-data dengan boundary");
+    }
+
+    /**
+     * Ambil semua part yang memiliki filename; field form biasa diabaikan
+     */
+    static List<Part> parseMultipart(byte[] body, String boundary) throws HttpError {
+        byte[] first = ("--" + boundary).getBytes(StandardCharsets.ISO_8859_1);
+        byte[] delimiter = ("\r\n--" + boundary).getBytes(StandardCharsets.ISO_8859_1);
+        byte[] headerEnd = {'\r', '\n', '\r', '\n'};
+
+        int pos = indexOf(body, first, 0);
+        if (pos < 0) {
+            throw new HttpError(400, "Boundary multipart tidak ditemukan");
+        }
+        pos += first.length;
+
+        List<Part> parts = new ArrayList<>();
+        while (pos + 1 < body.length && !(body[pos] == '-' && body[pos + 1] == '-')) {
+            int headersStart = pos + 2; // lewati CRLF setelah boundary
+            int headersEnd = indexOf(body, headerEnd, headersStart);
+            if (headersEnd < 0) {
+                throw new HttpError(400, "Header part multipart tidak lengkap");
+            }
+            int dataStart = headersEnd + headerEnd.length;
+            int dataEnd = indexOf(body, delimiter, dataStart);
+            if (dataEnd < 0) {
+                throw new HttpError(400, "Part multipart tidak ditutup boundary");
+            }
+
+            String headers = new String(body, headersStart, headersEnd - headersStart, StandardCharsets.UTF_8);
+            String fileName = fileNameOf(headers);
+            if (fileName != null && !fileName.isEmpty()) {
+                parts.add(new Part(fileName, Arrays.copyOfRange(body, dataStart, dataEnd)));
+            }
+            pos = dataEnd + delimiter.length;
+        }
+        return parts;
+    }
+
+    private static String fileNameOf(String headers) {
+        for (String line : headers.split("\r\n")) {
+            if (!line.toLowerCase().startsWith("content-disposition:")) {
+                continue;
+            }
+            int start = line.indexOf("filename=\"");
+            if (start < 0) {
+                return null;
+            }
+            start += "filename=\"".length();
+            int end = line.indexOf('"', start);
+            return end < 0 ? null : line.substring(start, end);
+        }
+        return null;
+    }
+
+    private static int indexOf(byte[] data, byte[] pattern, int from) {
+        outer:
+        for (int i = from; i <= data.length - pattern.length; i++) {
+            for (int j = 0; j < pattern.length; j++) {
+                if (data[i + j] != pattern[j]) {
+                    continue outer;
+                }
+            }
+            return i;
+        }
+        return -1;
+    }
+
+    /**
+     * Error request dengan kode status HTTP
+     */
+    static final class HttpError extends IOException {
+        private static final long serialVersionUID = 1L;
+
+        private final int status;
+
+        HttpError(int status, String message) {
+            super(message);
+            this.status = status;
+        }
+    }
+}
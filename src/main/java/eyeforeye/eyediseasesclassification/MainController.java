@@ -26,6 +26,7 @@ import java.nio.file.Files; // BARU
 import java.time.Duration; // BARU
 import java.util.ArrayList; // BARU
 import java.util.List; // BARU
+import java.util.concurrent.CompletableFuture;
 
 public class MainController {
 
@@ -54,7 +55,8 @@ public class MainController {
     private TableColumn<ClassProbabilityDisplay, String> probabilityColumn;
 
     private File selectedFile;
-    private ModelPredictor modelPredictor;
+    private ModelPredictor modelPredictor; // null sampai model selesai dimuat dan di-warm-up
+    private CompletableFuture<ModelPredictor> modelFuture;
     private File lastDirectory;
     private int lastPredictedClass = -1;
     private ObservableList<ClassProbabilityDisplay> probabilityData;
@@ -91,12 +93,24 @@ public class MainController {
             showGradCAMButton.setDisable(true);
         }
 
-        try {
-            // Inisialisasi model TensorFlow SavedModel (masih dipakai untuk prediksi)
-            modelPredictor = new ModelPredictor("saved_model");
-        } catch (Exception e) {
-            predictionLabel.setText("❌ Gagal memuat model: " + e.getMessage());
-            e.printStackTrace();
+        // Model TensorFlow SavedModel dimuat di latar agar jendela tidak freeze;
+        // tombol prediksi aktif setelah model siap (termasuk warm-up)
+        predictButton.setDisable(true);
+        predictionLabel.setText("Belum ada gambar yang diunggah.\n⏳ Memuat model...");
+        modelFuture = ModelRegistry.acquireAsync();
+        modelFuture.whenComplete((predictor, error) ->
+                javafx.application.Platform.runLater(() -> onModelLoaded(predictor, error)));
+    }
+
+    private void onModelLoaded(ModelPredictor predictor, Throwable error) {
+        if (error != null || predictor.getState() == ModelPredictor.State.FAILED) {
+            predictionLabel.setText("❌ Gagal memuat model" + (error != null ? ": " + error.getMessage() : ""));
+            return;
+        }
+        modelPredictor = predictor;
+        predictButton.setDisable(false);
+        if (selectedFile == null) {
+            predictionLabel.setText("Belum ada gambar yang diunggah.");
         }
     }
 
@@ -218,13 +232,16 @@ public class MainController {
         probabilityData.clear();
         
         // Get all predictions sorted by probability
-        PredictionResult.ClassProbability[] allPredictions = result.getAllPredictions();
+        String[] classNames = result.getClassNames();
+        if (classNames == null) return;
+        TopK allPredictions = result.topK(classNames.length);
         
-        for (PredictionResult.ClassProbability cp : allPredictions) {
+        for (int rank = 0; rank < allPredictions.size(); rank++) {
+            float probability = allPredictions.scoreAt(rank);
             probabilityData.add(new ClassProbabilityDisplay(
-                cp.getClassName(),
-                cp.getProbabilityPercent(),
-                cp.getProbability()
+                classNames[allPredictions.indexAt(rank)],
+                String.format("%.2f%%", probability * 100),
+                probability
             ));
         }
     }
@@ -349,9 +366,11 @@ public class MainController {
      * Method untuk cleanup resources saat aplikasi ditutup
      */
     public void cleanup() {
-        if (modelPredictor != null) {
-            modelPredictor.close();
+        if (modelFuture != null) {
+            modelFuture.thenAccept(ModelRegistry::release);
+            modelFuture = null;
         }
+        modelPredictor = null;
         // Tidak perlu mematikan HttpClient secara eksplisit
     }
     
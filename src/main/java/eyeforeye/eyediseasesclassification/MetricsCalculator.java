@@ -1,5 +1,6 @@
 package eyeforeye.eyediseasesclassification;
 
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -7,6 +8,10 @@ import java.util.Map;
 /**
  * Kelas ini menghitung metrik kuantitatif dari daftar hasil prediksi.
  * Ini membutuhkan daftar "PredictionTuple" yang berisi label aktual dan prediksi.
+ *
+ * Confusion matrix disimpan sebagai int[aktual][prediksi] berdasarkan indeks kelas,
+ * dan TP/FP/FN per kelas diperbarui langsung setiap kali hasil ditambahkan.
+ * Matrix dari beberapa shard evaluasi dapat digabung dengan merge().
  */
 public class MetricsCalculator {
 
@@ -23,136 +28,206 @@ public class MetricsCalculator {
         public String getPredictedLabel() { return predictedLabel; }
     }
 
-    private final List<PredictionTuple> results;
     private final String[] classNames;
-    private final Map<String, Map<String, Integer>> confusionMatrix;
-    private final int totalSamples;
+    private final Map<String, Integer> classIndex;
+    private final int[][] confusionMatrix;
+    private final int[] truePositives;
+    private final int[] falsePositives;
+    private final int[] falseNegatives;
+    private int totalSamples;
 
-    public MetricsCalculator(List<PredictionTuple> results, String[] classNames) {
-        this.results = results;
+    /**
+     * Calculator kosong; hasil ditambahkan satu per satu dengan add()
+     */
+    public MetricsCalculator(String[] classNames) {
         this.classNames = classNames;
-        this.totalSamples = results.size();
-        this.confusionMatrix = buildConfusionMatrix();
+        this.classIndex = new HashMap<>();
+        for (int i = 0; i < classNames.length; i++) {
+            classIndex.put(classNames[i], i);
+        }
+        int n = classNames.length;
+        this.confusionMatrix = new int[n][n];
+        this.truePositives = new int[n];
+        this.falsePositives = new int[n];
+        this.falseNegatives = new int[n];
+    }
+
+    public MetricsCalculator(List<PredictionTuple> results, String[] classNames) {
+        this(classNames);
+        // 1. Membangun Confusion Matrix
+        for (PredictionTuple result : results) {
+            add(result.getActualLabel(), result.getPredictedLabel());
+        }
+    }
+
+    /**
+     * Tambahkan satu hasil prediksi berdasarkan nama kelas
+     */
+    public void add(String actualLabel, String predictedLabel) {
+        add(indexOf(actualLabel), indexOf(predictedLabel));
     }
 
-    // 1. Membangun Confusion Matrix
-    private Map<String, Map<String, Integer>> buildConfusionMatrix() {
-        Map<String, Map<String, Integer>> matrix = new HashMap<>();
+    /**
+     * Tambahkan satu hasil prediksi berdasarkan indeks kelas
+     */
+    public void add(int actual, int predicted) {
+        confusionMatrix[actual][predicted]++;
+        totalSamples++;
+        if (actual == predicted) {
+            truePositives[actual]++;
+        } else {
+            falsePositives[predicted]++; // kolom di luar diagonal
+            falseNegatives[actual]++;    // baris di luar diagonal
+        }
+    }
 
-        // Inisialisasi matrix dengan 0
-        for (String actualClass : classNames) {
-            Map<String, Integer> row = new HashMap<>();
-            for (String predictedClass : classNames) {
-                row.put(predictedClass, 0);
+    /**
+     * Gabungkan matrix calculator lain (misalnya dari shard evaluasi paralel) ke calculator ini
+     */
+    public void merge(MetricsCalculator other) {
+        if (!Arrays.equals(classNames, other.classNames)) {
+            throw new IllegalArgumentException("Daftar kelas kedua calculator harus sama");
+        }
+        int n = classNames.length;
+        for (int a = 0; a < n; a++) {
+            for (int p = 0; p < n; p++) {
+                confusionMatrix[a][p] += other.confusionMatrix[a][p];
             }
-            matrix.put(actualClass, row);
+            truePositives[a] += other.truePositives[a];
+            falsePositives[a] += other.falsePositives[a];
+            falseNegatives[a] += other.falseNegatives[a];
         }
+        totalSamples += other.totalSamples;
+    }
 
-        // Isi matrix dengan hasil
-        for (PredictionTuple result : results) {
-            String actual = result.getActualLabel();
-            String predicted = result.getPredictedLabel();
-            
-            // Tambahkan 1 ke sel yang sesuai
-            int currentValue = matrix.get(actual).get(predicted);
-            matrix.get(actual).put(predicted, currentValue + 1);
+    /**
+     * Salinan independen (misalnya snapshot metrik sementara untuk UI)
+     */
+    public MetricsCalculator copy() {
+        MetricsCalculator copy = new MetricsCalculator(classNames);
+        copy.merge(this);
+        return copy;
+    }
+
+    public int getTotalSamples() {
+        return totalSamples;
+    }
+
+    public String[] getClassNames() {
+        return classNames;
+    }
+
+    /**
+     * Jumlah gambar kelas aktual yang diprediksi sebagai kelas prediksi
+     */
+    public int getCount(String actualLabel, String predictedLabel) {
+        return confusionMatrix[indexOf(actualLabel)][indexOf(predictedLabel)];
+    }
+
+    private int indexOf(String className) {
+        Integer index = classIndex.get(className);
+        if (index == null) {
+            throw new IllegalArgumentException("Kelas tidak dikenal: " + className);
         }
-        return matrix;
+        return index;
     }
 
     // 2. Menghitung Akurasi Keseluruhan
     public double getOverallAccuracy() {
         if (totalSamples == 0) return 0.0;
-        
+
         int totalCorrect = 0;
-        for (String className : classNames) {
-            totalCorrect += confusionMatrix.get(className).get(className);
+        for (int tp : truePositives) {
+            totalCorrect += tp;
         }
         return (double) totalCorrect / totalSamples;
     }
 
-    // 3. Menghitung True Positives, False Positives, False Negatives per kelas
-    private Map<String, Integer> getMetrics(String className) {
-        int tp = confusionMatrix.get(className).get(className);
-        
-        int fp = 0;
-        for (String actualClass : classNames) {
-            if (!actualClass.equals(className)) {
-                fp += confusionMatrix.get(actualClass).get(className); // Menjumlahkan kolom
-            }
-        }
-        
-        int fn = 0;
-        for (String predictedClass : classNames) {
-            if (!predictedClass.equals(className)) {
-                fn += confusionMatrix.get(className).get(predictedClass); // Menjumlahkan baris
-            }
-        }
-        
-        Map<String, Integer> metrics = new HashMap<>();
-        metrics.put("TP", tp);
-        metrics.put("FP", fp);
-        metrics.put("FN", fn);
-        return metrics;
-    }
-    
-    // 4. Menghitung Presisi per kelas
+    /**
+     * Interval kepercayaan Wilson untuk akurasi, {batas bawah, batas atas}.
+     * z = 1.96 untuk 95%. Interval menyempit seiring bertambahnya sampel,
+     * sehingga evaluasi bisa dihentikan lebih awal jika hasilnya sudah jelas.
+     */
+    public double[] getAccuracyInterval(double z) {
+        if (totalSamples == 0) return new double[]{0.0, 1.0};
+
+        double n = totalSamples;
+        double p = getOverallAccuracy();
+        double z2 = z * z;
+        double denominator = 1 + z2 / n;
+        double center = (p + z2 / (2 * n)) / denominator;
+        double halfWidth = z * Math.sqrt(p * (1 - p) / n + z2 / (4 * n * n)) / denominator;
+        return new double[]{Math.max(0.0, center - halfWidth), Math.min(1.0, center + halfWidth)};
+    }
+
+    // 3. Menghitung Presisi per kelas
     public double getPrecision(String className) {
-        Map<String, Integer> m = getMetrics(className);
-        int tp = m.get("TP");
-        int fp = m.get("FP");
+        return precision(indexOf(className));
+    }
+
+    // 4. Menghitung Recall per kelas
+    public double getRecall(String className) {
+        return recall(indexOf(className));
+    }
+
+    // 5. Menghitung F1-Score per kelas
+    public double getF1Score(String className) {
+        int c = indexOf(className);
+        return f1(precision(c), recall(c));
+    }
+
+    private double precision(int c) {
+        int tp = truePositives[c];
+        int fp = falsePositives[c];
         if (tp + fp == 0) return 0.0;
         return (double) tp / (tp + fp);
     }
-    
-    // 5. Menghitung Recall per kelas
-    public double getRecall(String className) {
-        Map<String, Integer> m = getMetrics(className);
-        int tp = m.get("TP");
-        int fn = m.get("FN");
+
+    private double recall(int c) {
+        int tp = truePositives[c];
+        int fn = falseNegatives[c];
         if (tp + fn == 0) return 0.0;
         return (double) tp / (tp + fn);
     }
-    
-    // 6. Menghitung F1-Score per kelas
-    public double getF1Score(String className) {
-        double precision = getPrecision(className);
-        double recall = getRecall(className);
+
+    private static double f1(double precision, double recall) {
         if (precision + recall == 0) return 0.0;
         return 2 * (precision * recall) / (precision + recall);
     }
-    
-    // 7. Format hasil sebagai String
+
+    // 6. Format hasil sebagai String
     public String getFormattedResults() {
         StringBuilder sb = new StringBuilder();
-        
+
         sb.append("--- HASIL EVALUASI KESELURUHAN ---\n");
         sb.append(String.format("Total Gambar: %d\n", totalSamples));
         sb.append(String.format("Akurasi: %.2f%%\n\n", getOverallAccuracy() * 100));
-        
+
         sb.append("--- METRIK PER KELAS ---\n");
-        for (String className : classNames) {
-            sb.append(String.format("[%s]\n", className));
-            sb.append(String.format("  Presisi: %.2f%%\n", getPrecision(className) * 100));
-            sb.append(String.format("  Recall   : %.2f%%\n", getRecall(className) * 100));
-            sb.append(String.format("  F1-Score : %.2f%%\n\n", getF1Score(className) * 100));
+        for (int c = 0; c < classNames.length; c++) {
+            double precision = precision(c);
+            double recall = recall(c);
+            sb.append(String.format("[%s]\n", classNames[c]));
+            sb.append(String.format("  Presisi: %.2f%%\n", precision * 100));
+            sb.append(String.format("  Recall   : %.2f%%\n", recall * 100));
+            sb.append(String.format("  F1-Score : %.2f%%\n\n", f1(precision, recall) * 100));
         }
-        
+
         sb.append("--- CONFUSION MATRIX ---\n");
         // Header
         sb.append("Aktual \\ Prediksi |");
         for (String c : classNames) sb.append(String.format(" %-10.10s |", c));
         sb.append("\n");
-        
+
         // Rows
-        for (String actualClass : classNames) {
-            sb.append(String.format("%-17.17s |", actualClass));
-            for (String predictedClass : classNames) {
-                sb.append(String.format(" %-10d |", confusionMatrix.get(actualClass).get(predictedClass)));
+        for (int a = 0; a < classNames.length; a++) {
+            sb.append(String.format("%-17.17s |", classNames[a]));
+            for (int p = 0; p < classNames.length; p++) {
+                sb.append(String.format(" %-10d |", confusionMatrix[a][p]));
             }
             sb.append("\n");
         }
-        
+
         return sb.toString();
     }
-}
\ No newline at end of file
+}
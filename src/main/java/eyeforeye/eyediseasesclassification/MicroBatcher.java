@@ -0,0 +1,217 @@
+package eyeforeye.eyediseasesclassification;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Menggabungkan gambar dari banyak pemanggil (request HTTP, tab UI yang berjalan bersamaan)
+ * menjadi satu session.run. Batch dikirim saat penuh atau saat jendela waktu sejak
+ * gambar pertama dalam batch habis, sehingga latensi tambahan paling lama satu jendela.
+ * Dengan flushWhenIdle, batch juga langsung dikirim jika tidak ada pemanggil lain
+ * yang sedang menyiapkan gambar (pemanggil tunggal tidak perlu menunggu jendela).
+ * Jika model punya beberapa replika, paling banyak satu batch per replika berjalan
+ * bersamaan; batch berikutnya terus dikumpulkan selama semua replika sibuk.
+ */
+final class MicroBatcher implements AutoCloseable {
+
+    private static final String STOPPED_MESSAGE = "Prediksi dibatalkan: model sedang ditutup";
+
+    private static final class Pending {
+        private final PreparedImage image;
+        private final CompletableFuture<PredictionResult> future = new CompletableFuture<>();
+        private final long enqueuedNanos = PerformanceMetrics.start();
+
+        Pending(PreparedImage image) {
+            this.image = image;
+        }
+    }
+
+    private final ModelPredictor modelPredictor;
+    private final int maxBatchSize;
+    private final long windowNanos;
+    private final boolean flushWhenIdle;
+    private final AtomicInteger preparing = new AtomicInteger();
+    private final BlockingQueue<Pending> queue = new LinkedBlockingQueue<>();
+    private final Thread worker;
+    // Slot batch yang boleh berjalan bersamaan (satu per replika model)
+    private final Semaphore runSlots;
+    private final ExecutorService runners;
+    private final PerformanceMetrics.Gauge queueGauge;
+    private final PerformanceMetrics.Gauge preparingGauge;
+    private volatile boolean closed;
+
+    MicroBatcher(ModelPredictor modelPredictor, int maxBatchSize, long windowMillis) {
+        this(modelPredictor, maxBatchSize, windowMillis, false);
+    }
+
+    MicroBatcher(ModelPredictor modelPredictor, int maxBatchSize, long windowMillis, boolean flushWhenIdle) {
+        if (maxBatchSize < 1 || windowMillis < 0) {
+            throw new IllegalArgumentException("Ukuran batch harus >= 1 dan jendela waktu >= 0");
+        }
+        this.modelPredictor = modelPredictor;
+        this.maxBatchSize = maxBatchSize;
+        this.windowNanos = TimeUnit.MILLISECONDS.toNanos(windowMillis);
+        this.flushWhenIdle = flushWhenIdle;
+        this.queueGauge = PerformanceMetrics.registerGauge("scheduler.queue", queue::size);
+        this.preparingGauge = PerformanceMetrics.registerGauge("scheduler.preparing", preparing::get);
+        int parallelism = modelPredictor.getReplicaCount();
+        this.runSlots = new Semaphore(parallelism);
+        this.runners = parallelism > 1 ? Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "micro-batch-run");
+            thread.setDaemon(true);
+            return thread;
+        }) : null;
+        this.worker = new Thread(this::runLoop, "micro-batch");
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+
+    /**
+     * Siapkan gambar di thread pemanggil lalu antrikan. Selama persiapan berjalan,
+     * batch yang sedang dikumpulkan menunggu gambar ini (paling lama satu jendela).
+     */
+    CompletableFuture<PredictionResult> submit(Supplier<PreparedImage> preparer) {
+        preparing.incrementAndGet();
+        PreparedImage image;
+        try {
+            image = preparer.get();
+        } catch (RuntimeException | Error e) {
+            preparing.decrementAndGet();
+            throw e;
+        }
+        // Selesai menyiapkan sebelum masuk antrian, agar worker tahu tidak ada gambar lain yang ditunggu
+        preparing.decrementAndGet();
+        return submit(image);
+    }
+
+    /**
+     * Antrikan gambar untuk inference. Gambar error atau hasil cache langsung selesai
+     * tanpa menunggu batch.
+     */
+    CompletableFuture<PredictionResult> submit(PreparedImage image) {
+        if (!image.isReady()) {
+            return CompletableFuture.completedFuture(
+                    modelPredictor.predictPrepared(Collections.singletonList(image)).get(0));
+        }
+        Pending pending = new Pending(image);
+        queue.add(pending);
+        // Worker sudah berhenti: jangan biarkan pemanggil menunggu selamanya
+        if (closed && queue.remove(pending)) {
+            pending.future.complete(new PredictionResult(image.getImageFile(), STOPPED_MESSAGE));
+        }
+        return pending.future;
+    }
+
+    private void runLoop() {
+        List<Pending> batch = new ArrayList<>(maxBatchSize);
+        try {
+            while (!closed) {
+                // Tunggu replika kosong sebelum mulai batch baru
+                runSlots.acquire();
+                Pending first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    runSlots.release();
+                    continue;
+                }
+                batch.add(first);
+
+                // Tunggu gambar lain sampai batch penuh atau jendela waktu habis
+                long deadline = System.nanoTime() + windowNanos;
+                while (batch.size() < maxBatchSize) {
+                    if (flushWhenIdle && queue.isEmpty() && preparing.get() == 0) {
+                        break;
+                    }
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        queue.drainTo(batch, maxBatchSize - batch.size());
+                        break;
+                    }
+                    Pending next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+
+                dispatch(batch);
+                batch = new ArrayList<>(maxBatchSize);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        // Request yang masih mengantri saat berhenti tetap mendapat jawaban
+        queue.drainTo(batch);
+        for (Pending pending : batch) {
+            pending.future.complete(new PredictionResult(pending.image.getImageFile(), STOPPED_MESSAGE));
+        }
+    }
+
+    /**
+     * Jalankan batch di thread ini (satu replika) atau di thread runner (beberapa replika)
+     */
+    private void dispatch(List<Pending> batch) {
+        if (runners == null) {
+            try {
+                flush(batch);
+            } finally {
+                runSlots.release();
+            }
+            return;
+        }
+        runners.execute(() -> {
+            try {
+                flush(batch);
+            } finally {
+                runSlots.release();
+            }
+        });
+    }
+
+    private void flush(List<Pending> batch) {
+        List<PreparedImage> images = new ArrayList<>(batch.size());
+        for (Pending pending : batch) {
+            images.add(pending.image);
+            PerformanceMetrics.record(PerformanceMetrics.Stage.SCHEDULER_WAIT, pending.enqueuedNanos);
+        }
+
+        try {
+            List<PredictionResult> results = modelPredictor.predictPrepared(images);
+            for (int i = 0; i < batch.size(); i++) {
+                batch.get(i).future.complete(results.get(i));
+            }
+        } catch (RuntimeException e) {
+            e.printStackTrace();
+            for (Pending pending : batch) {
+                pending.future.complete(new PredictionResult(pending.image.getImageFile(), "Error: " + e.getMessage()));
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        queueGauge.close();
+        preparingGauge.close();
+        worker.interrupt();
+        try {
+            worker.join(TimeUnit.SECONDS.toMillis(5));
+            if (runners != null) {
+                runners.shutdown();
+                runners.awaitTermination(5, TimeUnit.SECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
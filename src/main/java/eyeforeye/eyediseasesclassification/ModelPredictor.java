@@ -1,20 +1,84 @@
 package eyeforeye.eyediseasesclassification;
 
+import org.tensorflow.Result;
 import org.tensorflow.SavedModelBundle;
-import org.tensorflow.Tensor;
-import org.tensorflow.ndarray.Shape;
-import org.tensorflow.ndarray.buffer.DataBuffers;
 import org.tensorflow.ndarray.buffer.FloatDataBuffer;
+import org.tensorflow.proto.framework.ConfigProto;
 import org.tensorflow.types.TFloat32;
 
-import javax.imageio.ImageIO;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.MemoryCacheImageInputStream;
 import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
 import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class ModelPredictor {
 
+    /**
+     * Status kesiapan model. Prediksi pertama baru berlatensi normal setelah READY.
+     */
+    public enum State {
+        LOADING,
+        WARMING_UP,
+        READY,
+        FAILED
+    }
+
+    /**
+     * Jalur decode/resize/normalisasi: JAVA (ImageIO + ImageResampler) atau
+     * GRAPH (operasi TensorFlow, lihat GraphPreprocessor). Pilih dengan -Deye.preprocess.
+     */
+    public enum Preprocessing {
+        JAVA,
+        GRAPH;
+
+        static Preprocessing parse(String value) {
+            try {
+                return valueOf(value.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Mode preprocessing harus java atau graph: " + value);
+            }
+        }
+    }
+
     private SavedModelBundle model;
+    // Replika session (model == replicas[0].bundle); batch diarahkan ke replika dengan antrian terkecil
+    private Replica[] replicas = new Replica[0];
+    private PerformanceMetrics.Gauge inFlightGauge;
+    private volatile State state = State.LOADING;
     private static final String DEFAULT_SERVING_SIGNATURE_DEF_KEY = "serving_default";
+    private static final String INPUT_OPERATION = "serve_input_layer";
+    private static final String OUTPUT_OPERATION = "StatefulPartitionedCall";
+    static final int INPUT_SIZE = 224;
+    private static final int MIN_IMAGE_SIZE = 50;
+
+    // Tensor input dan buffer output dipakai ulang antar prediksi
+    private final TensorPool inputPool = new TensorPool(INPUT_SIZE, INPUT_SIZE, 3);
+    // Cache hasil terpisah per jalur preprocessing, karena piksel input (dan hasilnya) berbeda
+    private volatile PredictionCache predictionCache;
+    private volatile PredictionCache graphPredictionCache;
+    static final Preprocessing DEFAULT_PREPROCESSING = defaultPreprocessing();
+    private volatile Preprocessing preprocessing = DEFAULT_PREPROCESSING;
+    private GraphPreprocessor graphPreprocessor;
+
+    // Scheduler untuk pemanggil predictFull yang berjalan bersamaan (dibuat saat pertama dipakai)
+    static final boolean SCHEDULER_ENABLED = Boolean.parseBoolean(System.getProperty("eye.scheduler", "true"));
+    static final int SCHEDULER_MAX_BATCH = Integer.getInteger("eye.schedulerMaxBatch", 8);
+    static final int SCHEDULER_MAX_WAIT_MS = Integer.getInteger("eye.schedulerMaxWaitMs", 2);
+    private MicroBatcher scheduler;
+    // Warm-up: satu session.run pada tensor nol setelah model dimuat (lihat warmUp())
+    static final boolean WARMUP_ENABLED = Boolean.parseBoolean(System.getProperty("eye.warmup", "true"));
+    private static final ThreadLocal<float[]> OUTPUT_SCRATCH = ThreadLocal.withInitial(() -> new float[0]);
 
     private static final String[] CLASSES = {
             "Central Serous Chorioretinopathy",
@@ -33,80 +97,447 @@ public class ModelPredictor {
         return CLASSES;
     }
 
+    /**
+     * Satu session model beserta jumlah batch yang sedang dijalankan di dalamnya
+     */
+    private static final class Replica {
+        private final SavedModelBundle bundle;
+        private final AtomicInteger inFlight = new AtomicInteger();
+
+        Replica(SavedModelBundle bundle) {
+            this.bundle = bundle;
+        }
+    }
+
     public ModelPredictor(String modelPath) {
+        this(modelPath, SessionSettings.DEFAULT);
+    }
+
+    /**
+     * Muat model dengan pengaturan thread session tertentu (lihat SessionSettings).
+     * Dengan settings.getReplicas() &gt; 1 model dimuat beberapa kali, masing-masing dengan
+     * thread pool sendiri, agar beberapa batch bisa berjalan bersamaan di mesin dengan banyak core.
+     * Setiap replika memuat bobot model sendiri, jadi memori model ikut berlipat.
+     */
+    public ModelPredictor(String modelPath, SessionSettings settings) {
+        Replica[] loaded = new Replica[settings.getReplicas()];
         try {
-            System.out.println("🔹 Memuat model TensorFlow dari: " + modelPath);
-            model = SavedModelBundle.load(modelPath, "serve");
-            System.out.println("✅ Model berhasil dimuat!");
+            System.out.println("🔹 Memuat model TensorFlow dari: " + modelPath + " (" + settings + ")");
+            SessionSettings replicaSettings = settings.forReplica();
+            for (int i = 0; i < loaded.length; i++) {
+                SavedModelBundle.Loader loader = SavedModelBundle.loader(modelPath).withTags("serve");
+                ConfigProto config = replicaSettings.toConfigProto();
+                if (config != null) {
+                    loader.withConfigProto(config);
+                }
+                loaded[i] = new Replica(loader.load());
+            }
+            replicas = loaded;
+            model = loaded[0].bundle;
+            inFlightGauge = PerformanceMetrics.registerGauge("model.in_flight", this::inFlight);
+            System.out.println(loaded.length > 1
+                    ? "✅ Model berhasil dimuat! (" + loaded.length + " replika, " + replicaSettings + " per replika)"
+                    : "✅ Model berhasil dimuat!");
+            state = State.WARMING_UP;
             
         } catch (Exception e) {
             e.printStackTrace();
             System.err.println("❌ Gagal memuat model: " + e.getMessage());
+            for (Replica replica : loaded) {
+                if (replica != null) {
+                    replica.bundle.close();
+                }
+            }
+            state = State.FAILED;
+        }
+    }
+
+    /**
+     * Jumlah session yang bisa menjalankan batch bersamaan
+     */
+    public int getReplicaCount() {
+        return Math.max(1, replicas.length);
+    }
+
+    /**
+     * Ambil replika dengan batch berjalan paling sedikit (kurangi inFlight setelah session.run)
+     */
+    private Replica acquireReplica() {
+        while (true) {
+            Replica best = replicas[0];
+            int bestLoad = best.inFlight.get();
+            for (int i = 1; i < replicas.length && bestLoad > 0; i++) {
+                int load = replicas[i].inFlight.get();
+                if (load < bestLoad) {
+                    best = replicas[i];
+                    bestLoad = load;
+                }
+            }
+            // Reservasi hanya berhasil jika beban belum berubah sejak dibaca;
+            // jika thread lain lebih dulu mengambil replika ini, pilih ulang
+            if (best.inFlight.compareAndSet(bestLoad, bestLoad + 1)) {
+                return best;
+            }
+        }
+    }
+
+    private int inFlight() {
+        int total = 0;
+        for (Replica replica : replicas) {
+            total += replica.inFlight.get();
+        }
+        return total;
+    }
+
+    /**
+     * Jalankan satu session.run pada tensor nol [1,224,224,3] agar optimasi graph TensorFlow
+     * dan alokasi tensor terjadi sekarang, bukan saat prediksi pertama pengguna.
+     * Setiap replika di-warm-up. Status menjadi READY setelahnya (juga jika warm-up
+     * dinonaktifkan atau gagal).
+     */
+    void warmUp() {
+        if (model == null) {
+            state = State.FAILED;
+            return;
+        }
+        if (WARMUP_ENABLED) {
+            long start = System.nanoTime();
+            TFloat32 inputTensor = inputPool.borrow(1);
+            try {
+                inputTensor.asRawTensor().data().asFloats().write(new float[INPUT_SIZE * INPUT_SIZE * 3]);
+                for (Replica replica : replicas) {
+                    // Hasil warm-up tidak dipakai, langsung dilepas
+                    replica.bundle.session()
+                            .runner()
+                            .feed(INPUT_OPERATION, inputTensor)
+                            .fetch(OUTPUT_OPERATION)
+                            .run()
+                            .close();
+                }
+                System.out.printf("🔥 Warm-up model selesai dalam %d ms%n",
+                        (System.nanoTime() - start) / 1_000_000);
+            } catch (Exception e) {
+                System.err.println("⚠️ Warm-up model gagal: " + e.getMessage());
+            } finally {
+                inputPool.release(inputTensor);
+            }
         }
+        state = State.READY;
+    }
+
+    public State getState() {
+        return state;
     }
 
     /**
      * Prediksi dengan hasil lengkap (semua probabilitas kelas)
      */
     public PredictionResult predictFull(File imageFile) {
+        return predictFull(imageFile, null);
+    }
+
+    /**
+     * Prediksi memakai cache piksel memory-mapped: gambar yang sudah pernah diproses
+     * dibaca langsung dari cache tanpa decode dan resize ulang
+     */
+    public PredictionResult predictFull(File imageFile, PixelCache pixelCache) {
+        long start = PerformanceMetrics.start();
+        PredictionResult result = predictAsync(imageFile, pixelCache).join();
+        PerformanceMetrics.record(PerformanceMetrics.Stage.PREDICT_FULL, start);
+        return result;
+    }
+
+    /**
+     * Prediksi tanpa menunggu session.run. Gambar disiapkan di thread pemanggil, lalu
+     * digabung dengan gambar dari pemanggil lain yang datang bersamaan menjadi satu batch.
+     */
+    public CompletableFuture<PredictionResult> predictAsync(File imageFile, PixelCache pixelCache) {
         if (model == null) {
-            return new PredictionResult(imageFile, "Model belum dimuat");
+            return CompletableFuture.completedFuture(new PredictionResult(imageFile, "Model belum dimuat"));
+        }
+        if (!SCHEDULER_ENABLED) {
+            return CompletableFuture.completedFuture(
+                    predictPrepared(Collections.singletonList(prepare(imageFile, pixelCache))).get(0));
+        }
+        return scheduler().submit(() -> prepare(imageFile, pixelCache));
+    }
+
+    private synchronized MicroBatcher scheduler() {
+        if (scheduler == null) {
+            scheduler = new MicroBatcher(this, SCHEDULER_MAX_BATCH, SCHEDULER_MAX_WAIT_MS, true);
+        }
+        return scheduler;
+    }
+
+    /**
+     * Prediksi banyak gambar sekaligus dalam satu session.run.
+     * Gambar yang gagal diproses mendapat PredictionResult error sendiri
+     * tanpa menggagalkan gambar lain dalam batch.
+     */
+    public List<PredictionResult> predictBatch(List<File> imageFiles) {
+        List<PreparedImage> prepared = new ArrayList<>(imageFiles.size());
+        for (File imageFile : imageFiles) {
+            if (model == null) {
+                prepared.add(PreparedImage.error(imageFile, "Model belum dimuat"));
+            } else {
+                prepared.add(prepare(imageFile));
+            }
+        }
+        return predictPrepared(prepared);
+    }
+
+    /**
+     * Decode, validasi dan resize satu gambar ke ukuran input model
+     */
+    PreparedImage prepare(File imageFile) {
+        return prepare(imageFile, null);
+    }
+
+    /**
+     * Seperti prepare(File), tetapi memakai pixelCache (boleh null) sebelum decode
+     */
+    PreparedImage prepare(File imageFile, PixelCache pixelCache) {
+        Preprocessing mode = preprocessing;
+        PredictionCache cache = predictionCache(mode);
+        PredictionCache.Key cacheKey = null;
+        if (cache != null) {
+            try {
+                cacheKey = cache.keyOf(imageFile);
+                float[] cached = cache.lookup(cacheKey);
+                if (cached != null) {
+                    PerformanceMetrics.increment(PerformanceMetrics.Counter.CACHE_HITS);
+                    return PreparedImage.cached(imageFile, cached);
+                }
+            } catch (IOException e) {
+                // Lanjut tanpa cache; error file akan dilaporkan oleh tahap decode
+                cacheKey = null;
+            }
         }
 
-        TFloat32 inputTensor = null;
-        
         try {
-            // ==========================================
-            // STEP 1: OOD Detection (Out-of-Distribution)
-            // BLOK INI TELAH DIHAPUS
-            // ==========================================
-            
-            // ==========================================
-            // STEP 2: Model Prediction
-            // ==========================================
-            BufferedImage img = ImageIO.read(imageFile);
-            if (img == null) {
-                return new PredictionResult(imageFile, "Gagal membaca gambar");
+            // PixelCache berisi hasil resize jalur Java, jadi tidak dipakai di mode GRAPH
+            if (mode == Preprocessing.GRAPH) {
+                return prepareGraph(imageFile, Files.readAllBytes(imageFile.toPath()), cacheKey);
             }
-            
-            // Basic validation
-            if (img.getWidth() < 50 || img.getHeight() < 50) {
-                return new PredictionResult(imageFile, 
-                    "Resolusi gambar terlalu kecil (< 50x50 pixels)");
+
+            if (pixelCache != null) {
+                ByteBuffer pixels = pixelCache.get(imageFile);
+                if (pixels != null) {
+                    return PreparedImage.pixels(imageFile, pixels, cacheKey);
+                }
             }
-            
-            BufferedImage resized = resizeImage(img, 224, 224);
-            inputTensor = imageToTensorRGB(resized);
-
-            Tensor result = model.session()
-                    .runner()
-                    .feed("serve_input_layer", inputTensor)
-                    .fetch("StatefulPartitionedCall")
-                    .run()
-                    .get(0);
-
-            float[][] output = new float[1][CLASSES.length];
-            ((TFloat32) result).read(DataBuffers.of(output[0]));
-
-            // Copy probabilities
-            float[] probabilities = new float[CLASSES.length];
-            System.arraycopy(output[0], 0, probabilities, 0, CLASSES.length);
-            
-            result.close();
 
-            // ==========================================
-            // STEP 3: Return result
-            // ==========================================
-            return new PredictionResult(imageFile, CLASSES, probabilities);
+            // Header dibaca dulu; decode memakai subsampling mendekati 224x224
+            long start = PerformanceMetrics.start();
+            ImageDecoder.Decoded decoded = ImageDecoder.decode(imageFile, MIN_IMAGE_SIZE, INPUT_SIZE, INPUT_SIZE);
+            PerformanceMetrics.record(PerformanceMetrics.Stage.DECODE, start);
+            return prepareDecoded(imageFile, decoded, pixelCache, cacheKey);
 
         } catch (Exception e) {
             e.printStackTrace();
-            return new PredictionResult(imageFile, "Error: " + e.getMessage());
-        } finally {
-            if (inputTensor != null) {
-                inputTensor.close();
+            return PreparedImage.error(imageFile, "Error: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Seperti prepare(File), untuk gambar yang diterima sebagai byte (misalnya upload HTTP).
+     * imageFile hanya dipakai sebagai nama pada hasil prediksi.
+     */
+    PreparedImage prepareBytes(File imageFile, byte[] data) {
+        Preprocessing mode = preprocessing;
+        PredictionCache cache = predictionCache(mode);
+        PredictionCache.Key cacheKey = null;
+        if (cache != null) {
+            cacheKey = cache.keyOf(data);
+            float[] cached = cache.lookup(cacheKey);
+            if (cached != null) {
+                PerformanceMetrics.increment(PerformanceMetrics.Counter.CACHE_HITS);
+                return PreparedImage.cached(imageFile, cached);
             }
         }
+
+        if (mode == Preprocessing.GRAPH) {
+            try {
+                return prepareGraph(imageFile, data, cacheKey);
+            } catch (Exception e) {
+                e.printStackTrace();
+                return PreparedImage.error(imageFile, "Error: " + e.getMessage());
+            }
+        }
+
+        try (ImageInputStream input = new MemoryCacheImageInputStream(new ByteArrayInputStream(data))) {
+            long start = PerformanceMetrics.start();
+            ImageDecoder.Decoded decoded = ImageDecoder.decode(input, MIN_IMAGE_SIZE, INPUT_SIZE, INPUT_SIZE);
+            PerformanceMetrics.record(PerformanceMetrics.Stage.DECODE, start);
+            return prepareDecoded(imageFile, decoded, null, cacheKey);
+        } catch (Exception e) {
+            e.printStackTrace();
+            return PreparedImage.error(imageFile, "Error: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Decode, resize dan normalisasi di graph TensorFlow. Waktunya dicatat sebagai tahap
+     * decode karena ketiga langkah berjalan dalam satu session.run.
+     */
+    private PreparedImage prepareGraph(File imageFile, byte[] data, PredictionCache.Key cacheKey) {
+        long start = PerformanceMetrics.start();
+        float[] floats = new float[INPUT_SIZE * INPUT_SIZE * 3];
+        try {
+            graphPreprocessor().prepare(data, MIN_IMAGE_SIZE, floats);
+        } catch (IllegalArgumentException e) {
+            return PreparedImage.error(imageFile, e.getMessage());
+        }
+        PerformanceMetrics.record(PerformanceMetrics.Stage.DECODE, start);
+        return PreparedImage.floats(imageFile, floats, cacheKey);
+    }
+
+    private synchronized GraphPreprocessor graphPreprocessor() {
+        if (graphPreprocessor == null) {
+            graphPreprocessor = new GraphPreprocessor(INPUT_SIZE);
+        }
+        return graphPreprocessor;
+    }
+
+    private PreparedImage prepareDecoded(File imageFile, ImageDecoder.Decoded decoded, PixelCache pixelCache,
+                                         PredictionCache.Key cacheKey) throws IOException {
+        if (decoded == null) {
+            return PreparedImage.error(imageFile, "Gagal membaca gambar");
+        }
+
+        // Basic validation
+        if (decoded.isTooSmall()) {
+            return PreparedImage.error(imageFile,
+                "Resolusi gambar terlalu kecil (< 50x50 pixels)");
+        }
+
+        long start = PerformanceMetrics.start();
+        BufferedImage resized = resizeImage(decoded.image, INPUT_SIZE, INPUT_SIZE);
+        PerformanceMetrics.record(PerformanceMetrics.Stage.RESIZE, start);
+        if (pixelCache != null) {
+            try {
+                pixelCache.put(imageFile, resized);
+            } catch (IOException | RuntimeException e) {
+                // Gambar sudah berhasil di-decode; prediksi tetap jalan tanpa cache piksel
+                System.err.println("⚠️ Cache piksel dimatikan: " + e.getMessage());
+                pixelCache.disable();
+            }
+        }
+        return PreparedImage.of(imageFile, resized, cacheKey);
+    }
+
+    /**
+     * Jalankan model pada gambar yang sudah diproses.
+     * Semua gambar yang valid ditumpuk menjadi satu tensor [N,224,224,3].
+     */
+    List<PredictionResult> predictPrepared(List<PreparedImage> images) {
+        PredictionResult[] results = new PredictionResult[images.size()];
+        int[] readyIndexes = new int[images.size()];
+        int readyCount = 0;
+
+        for (int i = 0; i < images.size(); i++) {
+            PreparedImage image = images.get(i);
+            if (image.isCached()) {
+                results[i] = new PredictionResult(image.getImageFile(), CLASSES, image.getCachedProbabilities());
+                PerformanceMetrics.increment(PerformanceMetrics.Counter.IMAGES);
+            } else if (image.isReady()) {
+                readyIndexes[readyCount++] = i;
+            } else {
+                results[i] = new PredictionResult(image.getImageFile(), image.getErrorMessage());
+                PerformanceMetrics.increment(PerformanceMetrics.Counter.ERRORS);
+            }
+        }
+
+        if (readyCount > 0) {
+            if (model == null) {
+                for (int r = 0; r < readyCount; r++) {
+                    int i = readyIndexes[r];
+                    results[i] = new PredictionResult(images.get(i).getImageFile(), "Model belum dimuat");
+                }
+                PerformanceMetrics.add(PerformanceMetrics.Counter.ERRORS, readyCount);
+            } else {
+                runBatch(images, readyIndexes, readyCount, results);
+            }
+        }
+
+        return Arrays.asList(results);
+    }
+
+    private void runBatch(List<PreparedImage> images, int[] readyIndexes, int batchSize, PredictionResult[] results) {
+        TFloat32 inputTensor = inputPool.borrow(batchSize);
+
+        try {
+            long tensorStart = PerformanceMetrics.start();
+            FloatDataBuffer input = inputTensor.asRawTensor().data().asFloats();
+            long imageSize = (long) INPUT_SIZE * INPUT_SIZE * 3;
+            for (int b = 0; b < batchSize; b++) {
+                PreparedImage image = images.get(readyIndexes[b]);
+                if (image.getFloats() != null) {
+                    input.offset(b * imageSize).write(image.getFloats());
+                } else if (image.getPixels() != null) {
+                    ImageTensors.writeRgbBytes(image.getPixels(), input, b * imageSize);
+                } else {
+                    ImageTensors.writeRgb(image.getImage(), input, b * imageSize);
+                }
+            }
+            PerformanceMetrics.record(PerformanceMetrics.Stage.TENSOR, tensorStart, batchSize);
+
+            long runStart = PerformanceMetrics.start();
+
+            Replica replica = acquireReplica();
+            Result result;
+            try {
+                result = replica.bundle.session()
+                        .runner()
+                        .feed(INPUT_OPERATION, inputTensor)
+                        .fetch(OUTPUT_OPERATION)
+                        .run();
+            } finally {
+                replica.inFlight.decrementAndGet();
+            }
+
+            try (Result outputs = result) {
+
+                float[] output = outputScratch(batchSize * CLASSES.length);
+                ((TFloat32) outputs.get(0)).asRawTensor().data().asFloats().read(output, 0, batchSize * CLASSES.length);
+                PerformanceMetrics.record(PerformanceMetrics.Stage.SESSION_RUN, runStart, batchSize);
+                PerformanceMetrics.increment(PerformanceMetrics.Counter.BATCHES);
+                PerformanceMetrics.add(PerformanceMetrics.Counter.IMAGES, batchSize);
+
+                for (int b = 0; b < batchSize; b++) {
+                    float[] probabilities = new float[CLASSES.length];
+                    System.arraycopy(output, b * CLASSES.length, probabilities, 0, CLASSES.length);
+
+                    PreparedImage image = images.get(readyIndexes[b]);
+                    results[readyIndexes[b]] = new PredictionResult(image.getImageFile(), CLASSES, probabilities);
+                    // Simpan ke cache jalur yang benar-benar memproses gambar ini
+                    PredictionCache cache = predictionCache(
+                            image.getFloats() != null ? Preprocessing.GRAPH : Preprocessing.JAVA);
+                    if (cache != null && image.getCacheKey() != null) {
+                        cache.store(image.getCacheKey(), probabilities);
+                    }
+                }
+            }
+
+        } catch (Exception e) {
+            e.printStackTrace();
+            PerformanceMetrics.add(PerformanceMetrics.Counter.ERRORS, batchSize);
+            for (int r = 0; r < batchSize; r++) {
+                int i = readyIndexes[r];
+                results[i] = new PredictionResult(images.get(i).getImageFile(), "Error: " + e.getMessage());
+            }
+        } finally {
+            inputPool.release(inputTensor);
+        }
+    }
+
+    private static float[] outputScratch(int size) {
+        float[] scratch = OUTPUT_SCRATCH.get();
+        if (scratch.length < size) {
+            scratch = new float[size];
+            OUTPUT_SCRATCH.set(scratch);
+        }
+        return scratch;
     }
 
     public String predict(File imageFile) {
@@ -126,59 +557,23 @@ public class ModelPredictor {
                               predictedClass, confidence * 100));
         
         sb.append("Top 3 Prediksi:\n");
-        PredictionResult.ClassProbability[] topPredictions = result.getTopNPredictions(3);
-        for (int i = 0; i < topPredictions.length; i++) {
+        TopK topPredictions = result.topK(3);
+        for (int i = 0; i < topPredictions.size(); i++) {
             sb.append(String.format("%d. %s: %.2f%%\n", 
                 i + 1, 
-                topPredictions[i].getClassName(), 
-                topPredictions[i].getProbability() * 100));
+                CLASSES[topPredictions.indexAt(i)], 
+                topPredictions.scoreAt(i) * 100));
         }
 
         return sb.toString();
     }
 
     public BatchResult predictDetailed(File imageFile) {
-        PredictionResult result = predictFull(imageFile);
-        
-        if (!result.isSuccess()) {
-            return new BatchResult(imageFile, result.getErrorMessage());
-        }
-        
-        float confidence = result.getConfidence();
-        String predictedClass = result.getPredictedClass();
-
-        return new BatchResult(imageFile, predictedClass, confidence);
+        return BatchResult.from(predictFull(imageFile));
     }
 
     private static BufferedImage resizeImage(BufferedImage original, int width, int height) {
-        BufferedImage resized = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
-        resized.getGraphics().drawImage(original, 0, 0, width, height, null);
-        return resized;
-    }
-
-    private static TFloat32 imageToTensorRGB(BufferedImage img) {
-        int width = img.getWidth();
-        int height = img.getHeight();
-        
-        float[] data = new float[height * width * 3];
-        
-        int index = 0;
-        for (int h = 0; h < height; h++) {
-            for (int w = 0; w < width; w++) {
-                int pixel = img.getRGB(w, h);
-                
-                int r = (pixel >> 16) & 0xFF;
-                int g = (pixel >> 8) & 0xFF;
-                int b = pixel & 0xFF;
-                
-                data[index++] = r / 255.0f;
-                data[index++] = g / 255.0f;
-                data[index++] = b / 255.0f;
-            }
-        }
-
-        FloatDataBuffer buffer = DataBuffers.of(data);
-        return TFloat32.tensorOf(Shape.of(1, height, width, 3), buffer);
+        return ImageResampler.resize(original, width, height);
     }
 
     private static int argMax(float[] array) {
@@ -193,14 +588,79 @@ public class ModelPredictor {
         return maxIndex;
     }
     
+    /**
+     * Pasang cache hasil prediksi jalur JAVA (null untuk menonaktifkan)
+     */
+    public void setPredictionCache(PredictionCache predictionCache) {
+        setPredictionCache(Preprocessing.JAVA, predictionCache);
+    }
+
+    /**
+     * Pasang cache hasil prediksi untuk satu jalur preprocessing (null untuk menonaktifkan)
+     */
+    public void setPredictionCache(Preprocessing mode, PredictionCache cache) {
+        if (mode == Preprocessing.GRAPH) {
+            graphPredictionCache = cache;
+        } else {
+            predictionCache = cache;
+        }
+    }
+
+    private PredictionCache predictionCache(Preprocessing mode) {
+        return mode == Preprocessing.GRAPH ? graphPredictionCache : predictionCache;
+    }
+
+    /**
+     * Ganti jalur preprocessing (misalnya untuk A/B benchmark JAVA vs GRAPH)
+     */
+    public void setPreprocessing(Preprocessing preprocessing) {
+        this.preprocessing = preprocessing;
+    }
+
+    public Preprocessing getPreprocessing() {
+        return preprocessing;
+    }
+
+    private static Preprocessing defaultPreprocessing() {
+        String value = System.getProperty("eye.preprocess", "java");
+        try {
+            return Preprocessing.parse(value);
+        } catch (IllegalArgumentException e) {
+            System.err.println("⚠️ " + e.getMessage() + ", memakai java");
+            return Preprocessing.JAVA;
+        }
+    }
+
     public SavedModelBundle getModel() {
         return model;
     }
 
     public void close() {
         try {
-            if (model != null) {
-                model.close();
+            synchronized (this) {
+                if (scheduler != null) {
+                    scheduler.close();
+                    scheduler = null;
+                }
+            }
+            if (inFlightGauge != null) {
+                inFlightGauge.close();
+            }
+            for (Replica replica : replicas) {
+                replica.bundle.close();
+            }
+            inputPool.close();
+            synchronized (this) {
+                if (graphPreprocessor != null) {
+                    graphPreprocessor.close();
+                    graphPreprocessor = null;
+                }
+            }
+            if (graphPredictionCache != null) {
+                graphPredictionCache.close();
+            }
+            if (predictionCache != null) {
+                predictionCache.close();
             }
             System.out.println("🔹 Model resources cleaned up");
         } catch (Exception e) {
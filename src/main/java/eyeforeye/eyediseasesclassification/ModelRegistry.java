@@ -0,0 +1,136 @@
+package eyeforeye.eyediseasesclassification;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Registry bersama untuk ModelPredictor.
+ * Setiap path model hanya dimuat sekali dan dipakai bersama oleh semua tab.
+ * Model baru ditutup ketika pengguna terakhir memanggil release().
+ *
+ * Model dimuat dan di-warm-up di thread latar "model-loader", sehingga FX thread
+ * tidak pernah menunggu. Controller memakai acquireAsync() dan mengaktifkan UI
+ * prediksi setelah future selesai. Jika model gagal dimuat, future selesai dengan
+ * exception dan pemanggil berikutnya mencoba memuat ulang.
+ */
+public final class ModelRegistry {
+
+    public static final String DEFAULT_MODEL_PATH = "saved_model";
+
+    private static final Map<String, Entry> entries = new HashMap<>();
+    private static final ExecutorService loader = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "model-loader");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private ModelRegistry() {
+    }
+
+    /**
+     * Ambil predictor untuk path model tertentu tanpa menunggu. Model dimuat dan di-warm-up
+     * di latar jika belum ada; future selesai setelah itu. Setiap pemanggilan menambah satu
+     * pengguna, lepaskan dengan future.thenAccept(ModelRegistry::release).
+     */
+    public static CompletableFuture<ModelPredictor> acquireAsync(String modelPath) {
+        return acquireAsync(modelPath, SessionSettings.DEFAULT);
+    }
+
+    /**
+     * Seperti acquireAsync(modelPath); settings hanya dipakai jika model belum dimuat
+     */
+    public static synchronized CompletableFuture<ModelPredictor> acquireAsync(String modelPath, SessionSettings settings) {
+        Entry entry = entries.get(modelPath);
+        if (entry == null) {
+            Entry created = new Entry();
+            entry = created;
+            entries.put(modelPath, entry);
+            loader.execute(() -> load(modelPath, settings, created));
+        }
+        entry.refCount++;
+        System.out.println("🔹 Model '" + modelPath + "' dipakai oleh " + entry.refCount + " pengguna");
+        return entry.ready;
+    }
+
+    public static CompletableFuture<ModelPredictor> acquireAsync() {
+        return acquireAsync(DEFAULT_MODEL_PATH);
+    }
+
+    /**
+     * Ambil predictor untuk path model tertentu dan tunggu sampai siap (CLI, server)
+     */
+    public static ModelPredictor acquire(String modelPath) {
+        return acquire(modelPath, SessionSettings.DEFAULT);
+    }
+
+    public static ModelPredictor acquire(String modelPath, SessionSettings settings) {
+        return acquireAsync(modelPath, settings).join();
+    }
+
+    public static ModelPredictor acquire() {
+        return acquire(DEFAULT_MODEL_PATH);
+    }
+
+    private static void load(String modelPath, SessionSettings settings, Entry entry) {
+        ModelPredictor predictor = null;
+        try {
+            predictor = new ModelPredictor(modelPath, settings);
+            if (predictor.getState() == ModelPredictor.State.FAILED) {
+                // Penyebabnya sudah dicetak oleh konstruktor ModelPredictor
+                throw new IllegalStateException("model tidak bisa dibuka dari " + modelPath);
+            }
+            if (PredictionCache.ENABLED) {
+                int numClasses = ModelPredictor.getClasses().length;
+                predictor.setPredictionCache(PredictionCache.open(modelPath, numClasses));
+                predictor.setPredictionCache(ModelPredictor.Preprocessing.GRAPH,
+                        PredictionCache.open(modelPath, numClasses, "graph"));
+            }
+            predictor.warmUp();
+            synchronized (ModelRegistry.class) {
+                entry.predictor = predictor;
+            }
+            entry.ready.complete(predictor);
+        } catch (RuntimeException e) {
+            if (predictor == null || predictor.getState() != ModelPredictor.State.FAILED) {
+                e.printStackTrace();
+            }
+            if (predictor != null) {
+                predictor.close();
+            }
+            // Entri dihapus agar pemanggil berikutnya mencoba memuat ulang
+            synchronized (ModelRegistry.class) {
+                entries.remove(modelPath, entry);
+            }
+            entry.ready.completeExceptionally(e);
+        }
+    }
+
+    /**
+     * Lepaskan predictor. Model ditutup jika tidak ada pengguna lagi.
+     */
+    public static synchronized void release(ModelPredictor predictor) {
+        if (predictor == null) {
+            return;
+        }
+        for (Map.Entry<String, Entry> e : entries.entrySet()) {
+            Entry entry = e.getValue();
+            if (entry.predictor == predictor) {
+                entry.refCount--;
+                if (entry.refCount <= 0) {
+                    entries.remove(e.getKey());
+                    entry.predictor.close();
+                }
+                return;
+            }
+        }
+    }
+
+    private static class Entry {
+        private final CompletableFuture<ModelPredictor> ready = new CompletableFuture<>();
+        private ModelPredictor predictor; // null selama model masih dimuat
+        private int refCount;
+    }
+}
@@ -0,0 +1,140 @@
+package eyeforeye.eyediseasesclassification;
+
+import javafx.animation.Animation;
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
+import javafx.beans.property.ReadOnlyStringWrapper;
+import javafx.fxml.FXML;
+import javafx.scene.control.Button;
+import javafx.scene.control.Label;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableView;
+import javafx.stage.FileChooser;
+import javafx.util.Duration;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Map;
+import java.util.function.Function;
+
+public class PerformanceController {
+
+    @FXML
+    private Button resetButton, exportButton;
+    @FXML
+    private Label statusLabel, throughputLabel, gaugeLabel;
+    @FXML
+    private TableView<PerformanceMetrics.StageSnapshot> stageTable;
+    @FXML
+    private TableColumn<PerformanceMetrics.StageSnapshot, String> stageColumn, countColumn, meanColumn,
+            p50Column, p95Column, p99Column, maxColumn;
+
+    private static final Duration REFRESH_INTERVAL = Duration.seconds(1);
+    private Timeline refresh;
+    private long lastImages;
+    private long lastRefreshNanos;
+
+    @FXML
+    public void initialize() {
+        bind(stageColumn, s -> s.stage.getKey());
+        bind(countColumn, s -> String.valueOf(s.count));
+        bind(meanColumn, s -> String.format("%.1f", s.meanMicros));
+        bind(p50Column, s -> String.valueOf(s.p50Micros));
+        bind(p95Column, s -> String.valueOf(s.p95Micros));
+        bind(p99Column, s -> String.valueOf(s.p99Micros));
+        bind(maxColumn, s -> String.valueOf(s.maxMicros));
+
+        if (!PerformanceMetrics.ENABLED) {
+            throughputLabel.setText("Metrik dinonaktifkan (-Deye.metrics=false)");
+            resetButton.setDisable(true);
+            exportButton.setDisable(true);
+            return;
+        }
+
+        lastRefreshNanos = System.nanoTime();
+        refresh = new Timeline(new KeyFrame(REFRESH_INTERVAL, e -> refreshMetrics()));
+        refresh.setCycleCount(Animation.INDEFINITE);
+        refresh.play();
+    }
+
+    private static void bind(TableColumn<PerformanceMetrics.StageSnapshot, String> column,
+                             Function<PerformanceMetrics.StageSnapshot, String> value) {
+        column.setCellValueFactory(cell -> new ReadOnlyStringWrapper(value.apply(cell.getValue())));
+    }
+
+    /**
+     * Baca ulang semua metrik (dipanggil Timeline di FX thread)
+     */
+    private void refreshMetrics() {
+        stageTable.getItems().setAll(PerformanceMetrics.getStages());
+
+        // Throughput terkini dihitung dari selisih sejak refresh sebelumnya
+        long now = System.nanoTime();
+        long images = PerformanceMetrics.getCount(PerformanceMetrics.Counter.IMAGES);
+        double seconds = (now - lastRefreshNanos) / 1e9;
+        double currentRate = seconds > 0 ? Math.max(0, images - lastImages) / seconds : 0.0;
+        lastImages = images;
+        lastRefreshNanos = now;
+
+        double elapsed = PerformanceMetrics.getElapsedSeconds();
+        throughputLabel.setText(String.format(
+                "Gambar: %d | Batch: %d | Error: %d | Cache hit: %d | Throughput: %.1f gambar/detik (rata-rata %.1f)",
+                images,
+                PerformanceMetrics.getCount(PerformanceMetrics.Counter.BATCHES),
+                PerformanceMetrics.getCount(PerformanceMetrics.Counter.ERRORS),
+                PerformanceMetrics.getCount(PerformanceMetrics.Counter.CACHE_HITS),
+                currentRate,
+                elapsed > 0 ? images / elapsed : 0.0));
+
+        StringBuilder gauges = new StringBuilder("Antrian: ");
+        Map<String, Integer> values = PerformanceMetrics.getGauges();
+        if (values.isEmpty()) {
+            gauges.append("-");
+        }
+        boolean first = true;
+        for (Map.Entry<String, Integer> e : values.entrySet()) {
+            if (!first) {
+                gauges.append(", ");
+            }
+            first = false;
+            gauges.append(e.getKey()).append(" = ").append(e.getValue());
+        }
+        gaugeLabel.setText(gauges.toString());
+    }
+
+    @FXML
+    private void onResetClicked() {
+        PerformanceMetrics.reset();
+        lastImages = 0;
+        lastRefreshNanos = System.nanoTime();
+        refreshMetrics();
+        statusLabel.setText("Metrik direset");
+    }
+
+    @FXML
+    private void onExportClicked() {
+        FileChooser fileChooser = new FileChooser();
+        fileChooser.setTitle("Simpan Metrik Performa");
+        fileChooser.setInitialFileName("performance.json");
+        fileChooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("JSON", "*.json"));
+
+        File file = fileChooser.showSaveDialog(exportButton.getScene().getWindow());
+        if (file != null) {
+            try {
+                Files.write(file.toPath(), PerformanceMetrics.toJson().getBytes(StandardCharsets.UTF_8));
+                statusLabel.setText("✅ Disimpan ke " + file.getName());
+            } catch (IOException e) {
+                statusLabel.setText("❌ Gagal menyimpan: " + e.getMessage());
+            }
+        }
+    }
+
+    public void cleanup() {
+        if (refresh != null) {
+            refresh.stop();
+            refresh = null;
+        }
+    }
+}
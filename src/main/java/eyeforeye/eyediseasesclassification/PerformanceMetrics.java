@@ -0,0 +1,384 @@
+package eyeforeye.eyediseasesclassification;
+
+import jdk.jfr.EventType;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntSupplier;
+
+/**
+ * Registry metrik performa untuk seluruh aplikasi:
+ * - histogram latensi per tahap prediksi (decode, resize, tensor, session.run, ...)
+ * - counter throughput (gambar, batch, error, cache hit)
+ * - gauge kedalaman antrian (scheduler, pipeline batch)
+ *
+ * Pencatatan hanya berupa increment atomik (tanpa lock, tanpa alokasi), sehingga aman
+ * dipanggil di jalur prediksi. Setiap tahap juga dikirim sebagai event JFR (StageEvent)
+ * jika rekaman JFR sedang aktif. Nonaktifkan seluruhnya dengan -Deye.metrics=false.
+ */
+public final class PerformanceMetrics {
+
+    static final boolean ENABLED = Boolean.parseBoolean(System.getProperty("eye.metrics", "true"));
+
+    /**
+     * Tahap yang diukur latensinya
+     */
+    public enum Stage {
+        DECODE("decode"),
+        RESIZE("resize"),
+        TENSOR("tensor"),
+        SESSION_RUN("session_run"),
+        SCHEDULER_WAIT("scheduler_wait"),
+        PREDICT_FULL("predict_full"),
+        UI_UPDATE("ui_update");
+
+        private final String key;
+
+        Stage(String key) {
+            this.key = key;
+        }
+
+        public String getKey() {
+            return key;
+        }
+    }
+
+    /**
+     * Counter throughput
+     */
+    public enum Counter {
+        IMAGES("images"),
+        BATCHES("batches"),
+        ERRORS("errors"),
+        CACHE_HITS("cache_hits");
+
+        private final String key;
+
+        Counter(String key) {
+            this.key = key;
+        }
+
+        public String getKey() {
+            return key;
+        }
+    }
+
+    /**
+     * Ringkasan satu histogram pada saat snapshot (waktu dalam mikrodetik)
+     */
+    public static final class StageSnapshot {
+        public final Stage stage;
+        public final long count;
+        public final double meanMicros;
+        public final long p50Micros;
+        public final long p95Micros;
+        public final long p99Micros;
+        public final long maxMicros;
+
+        StageSnapshot(Stage stage, long count, double meanMicros, long p50Micros, long p95Micros,
+                      long p99Micros, long maxMicros) {
+            this.stage = stage;
+            this.count = count;
+            this.meanMicros = meanMicros;
+            this.p50Micros = p50Micros;
+            this.p95Micros = p95Micros;
+            this.p99Micros = p99Micros;
+            this.maxMicros = maxMicros;
+        }
+    }
+
+    /**
+     * Handle gauge yang terdaftar; close() untuk melepasnya
+     */
+    public static final class Gauge implements AutoCloseable {
+        private final String name;
+        private final IntSupplier value;
+
+        private Gauge(String name, IntSupplier value) {
+            this.name = name;
+            this.value = value;
+        }
+
+        @Override
+        public void close() {
+            GAUGES.remove(this);
+        }
+    }
+
+    private static final Histogram[] HISTOGRAMS = new Histogram[Stage.values().length];
+    private static final LongAdder[] COUNTERS = new LongAdder[Counter.values().length];
+    private static final List<Gauge> GAUGES = new CopyOnWriteArrayList<>();
+    private static volatile long resetNanos = System.nanoTime();
+    // Dicek sebelum membuat StageEvent, agar tanpa rekaman JFR tidak ada alokasi sama sekali
+    private static final EventType STAGE_EVENT_TYPE = EventType.getEventType(StageEvent.class);
+
+    static {
+        for (int i = 0; i < HISTOGRAMS.length; i++) {
+            HISTOGRAMS[i] = new Histogram();
+        }
+        for (int i = 0; i < COUNTERS.length; i++) {
+            COUNTERS[i] = new LongAdder();
+        }
+    }
+
+    private PerformanceMetrics() {
+    }
+
+    /**
+     * Waktu mulai untuk record(); 0 jika metrik dinonaktifkan
+     */
+    public static long start() {
+        return ENABLED ? System.nanoTime() : 0L;
+    }
+
+    /**
+     * Catat durasi satu tahap sejak startNanos (dari start())
+     */
+    public static void record(Stage stage, long startNanos) {
+        record(stage, startNanos, 1);
+    }
+
+    /**
+     * Catat durasi satu tahap yang memproses beberapa gambar sekaligus (misalnya satu batch)
+     */
+    public static void record(Stage stage, long startNanos, int images) {
+        if (!ENABLED) {
+            return;
+        }
+        long duration = System.nanoTime() - startNanos;
+        HISTOGRAMS[stage.ordinal()].record(TimeUnit.NANOSECONDS.toMicros(duration));
+
+        if (STAGE_EVENT_TYPE.isEnabled()) {
+            StageEvent event = new StageEvent();
+            event.stage = stage.getKey();
+            event.latency = duration;
+            event.images = images;
+            event.commit();
+        }
+    }
+
+    public static void increment(Counter counter) {
+        add(counter, 1);
+    }
+
+    public static void add(Counter counter, long amount) {
+        if (ENABLED) {
+            COUNTERS[counter.ordinal()].add(amount);
+        }
+    }
+
+    /**
+     * Daftarkan gauge (misalnya ukuran antrian). Gauge dengan nama sama dijumlahkan.
+     */
+    public static Gauge registerGauge(String name, IntSupplier value) {
+        Gauge gauge = new Gauge(name, value);
+        if (ENABLED) {
+            GAUGES.add(gauge);
+        }
+        return gauge;
+    }
+
+    public static long getCount(Counter counter) {
+        return COUNTERS[counter.ordinal()].sum();
+    }
+
+    /**
+     * Nilai gauge saat ini per nama, urut sesuai pendaftaran pertama
+     */
+    public static Map<String, Integer> getGauges() {
+        Map<String, Integer> values = new LinkedHashMap<>();
+        for (Gauge gauge : GAUGES) {
+            values.merge(gauge.name, gauge.value.getAsInt(), Integer::sum);
+        }
+        return values;
+    }
+
+    /**
+     * Ringkasan semua tahap yang sudah punya data
+     */
+    public static List<StageSnapshot> getStages() {
+        List<StageSnapshot> snapshots = new ArrayList<>();
+        for (Stage stage : Stage.values()) {
+            StageSnapshot snapshot = HISTOGRAMS[stage.ordinal()].snapshot(stage);
+            if (snapshot.count > 0) {
+                snapshots.add(snapshot);
+            }
+        }
+        return snapshots;
+    }
+
+    /**
+     * Detik sejak start aplikasi atau reset() terakhir
+     */
+    public static double getElapsedSeconds() {
+        return (System.nanoTime() - resetNanos) / 1e9;
+    }
+
+    /**
+     * Kosongkan histogram dan counter (gauge tetap terdaftar)
+     */
+    public static void reset() {
+        for (Histogram histogram : HISTOGRAMS) {
+            histogram.reset();
+        }
+        for (LongAdder counter : COUNTERS) {
+            counter.reset();
+        }
+        resetNanos = System.nanoTime();
+    }
+
+    /**
+     * Semua metrik sebagai JSON (waktu dalam mikrodetik)
+     */
+    public static String toJson() {
+        double elapsed = getElapsedSeconds();
+        StringBuilder sb = new StringBuilder("{");
+        sb.append("\"elapsedSeconds\":").append(format(elapsed));
+
+        sb.append(",\"counters\":{");
+        for (Counter counter : Counter.values()) {
+            if (counter.ordinal() > 0) {
+                sb.append(',');
+            }
+            sb.append('"').append(counter.getKey()).append("\":").append(getCount(counter));
+        }
+        sb.append("},\"imagesPerSecond\":")
+          .append(format(elapsed > 0 ? getCount(Counter.IMAGES) / elapsed : 0.0));
+
+        sb.append(",\"stages\":{");
+        boolean first = true;
+        for (StageSnapshot s : getStages()) {
+            if (!first) {
+                sb.append(',');
+            }
+            first = false;
+            sb.append('"').append(s.stage.getKey()).append("\":{")
+              .append("\"count\":").append(s.count)
+              .append(",\"meanMicros\":").append(format(s.meanMicros))
+              .append(",\"p50Micros\":").append(s.p50Micros)
+              .append(",\"p95Micros\":").append(s.p95Micros)
+              .append(",\"p99Micros\":").append(s.p99Micros)
+              .append(",\"maxMicros\":").append(s.maxMicros)
+              .append('}');
+        }
+
+        sb.append("},\"gauges\":{");
+        first = true;
+        for (Map.Entry<String, Integer> e : getGauges().entrySet()) {
+            if (!first) {
+                sb.append(',');
+            }
+            first = false;
+            sb.append(PredictionFormats.jsonString(e.getKey())).append(':').append(e.getValue());
+        }
+        sb.append("}}");
+        return sb.toString();
+    }
+
+    private static String format(double value) {
+        return String.format(Locale.ROOT, "%.3f", value);
+    }
+
+    /**
+     * Histogram log-linear: 8 bucket per pangkat dua (galat persentil maksimal ~12,5%).
+     * Nilai 0..7 us disimpan tepat; di atas ~2^40 us digabung ke bucket terakhir.
+     */
+    static final class Histogram {
+        private static final int SUB_BUCKET_BITS = 3;
+        private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+        private static final int MAX_EXPONENT = 40;
+        static final int BUCKETS = SUB_BUCKETS + (MAX_EXPONENT - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+
+        private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+        private final LongAdder count = new LongAdder();
+        private final LongAdder sum = new LongAdder();
+        private final AtomicLong max = new AtomicLong();
+
+        void record(long micros) {
+            buckets.incrementAndGet(bucketOf(micros));
+            count.increment();
+            sum.add(micros);
+            long currentMax;
+            while (micros > (currentMax = max.get()) && !max.compareAndSet(currentMax, micros)) {
+                // ulangi sampai max terbaru tercatat
+            }
+        }
+
+        static int bucketOf(long micros) {
+            if (micros < SUB_BUCKETS) {
+                return (int) Math.max(0, micros);
+            }
+            int exponent = 63 - Long.numberOfLeadingZeros(micros);
+            if (exponent > MAX_EXPONENT) {
+                return BUCKETS - 1;
+            }
+            int shift = exponent - SUB_BUCKET_BITS;
+            int mantissa = (int) (micros >>> shift) & (SUB_BUCKETS - 1);
+            return SUB_BUCKETS + shift * SUB_BUCKETS + mantissa;
+        }
+
+        /**
+         * Nilai terkecil yang masuk bucket index
+         */
+        static long lowerBound(int index) {
+            if (index < SUB_BUCKETS) {
+                return index;
+            }
+            int shift = (index - SUB_BUCKETS) / SUB_BUCKETS;
+            int mantissa = (index - SUB_BUCKETS) % SUB_BUCKETS;
+            return (long) (SUB_BUCKETS + mantissa) << shift;
+        }
+
+        StageSnapshot snapshot(Stage stage) {
+            long[] copy = new long[BUCKETS];
+            long total = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                copy[i] = buckets.get(i);
+                total += copy[i];
+            }
+            long maxMicros = max.get();
+            double mean = total > 0 ? (double) sum.sum() / count.sum() : 0.0;
+            return new StageSnapshot(stage, total, mean,
+                    percentile(copy, total, 0.50, maxMicros),
+                    percentile(copy, total, 0.95, maxMicros),
+                    percentile(copy, total, 0.99, maxMicros),
+                    maxMicros);
+        }
+
+        /**
+         * Batas atas bucket yang memuat persentil q (tidak melebihi max)
+         */
+        private static long percentile(long[] buckets, long total, double q, long max) {
+            if (total == 0) {
+                return 0;
+            }
+            long rank = (long) Math.ceil(q * total);
+            long seen = 0;
+            for (int i = 0; i < buckets.length; i++) {
+                seen += buckets[i];
+                if (seen >= rank) {
+                    long upper = i + 1 < buckets.length ? lowerBound(i + 1) - 1 : max;
+                    return Math.min(upper, max);
+                }
+            }
+            return max;
+        }
+
+        void reset() {
+            for (int i = 0; i < BUCKETS; i++) {
+                buckets.set(i, 0);
+            }
+            count.reset();
+            sum.reset();
+            max.set(0);
+        }
+    }
+}
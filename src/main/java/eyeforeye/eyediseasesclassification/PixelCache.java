@@ -0,0 +1,252 @@
+package eyeforeye.eyediseasesclassification;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Cache piksel hasil preprocessing (224x224x3 uint8) dalam file memory-mapped.
+ * Evaluasi berikutnya membaca piksel langsung dari region yang di-map tanpa ImageIO,
+ * sehingga perbandingan antar model tidak perlu decode dan resize ulang.
+ *
+ * File data berisi slot berukuran tetap; file index (append-only) memetakan
+ * path + ukuran + mtime file gambar ke nomor slot. Folder cache boleh dipakai bersama
+ * beberapa proses: slot baru dialokasikan dan dicatat di index di bawah kunci file.
+ */
+public class PixelCache implements AutoCloseable {
+
+    public static final int RECORD_SIZE = ModelPredictor.INPUT_SIZE * ModelPredictor.INPUT_SIZE * 3;
+    private static final int SEGMENT_RECORDS = 1024;
+    private static final long SEGMENT_BYTES = (long) RECORD_SIZE * SEGMENT_RECORDS;
+
+    private static final class Entry {
+        private final long size;
+        private final long lastModified;
+        private final int slot;
+
+        Entry(long size, long lastModified, int slot) {
+            this.size = size;
+            this.lastModified = lastModified;
+            this.slot = slot;
+        }
+    }
+
+    private final FileChannel data;
+    private final FileChannel indexChannel;
+    private final Path indexPath;
+    private final Map<String, Entry> index = new HashMap<>();
+    private final List<MappedByteBuffer> segments = new ArrayList<>();
+    // Hanya diubah sambil memegang kunci file index
+    private int nextSlot;
+    private volatile long indexEnd;
+    private volatile boolean disabled;
+
+    public PixelCache(File directory) throws IOException {
+        Files.createDirectories(directory.toPath());
+        String prefix = "pixels-" + ModelPredictor.INPUT_SIZE;
+        data = FileChannel.open(new File(directory, prefix + ".dat").toPath(),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        indexPath = directory.toPath().resolve(prefix + ".idx");
+        indexChannel = FileChannel.open(indexPath,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        FileLocks.withLock(indexChannel, indexPath, () -> {
+            readIndexTail();
+            return null;
+        });
+        System.out.println("🔹 Cache piksel: " + index.size() + " gambar di " + directory);
+    }
+
+    public static PixelCache openDefault() throws IOException {
+        return new PixelCache(new File(PredictionCache.DEFAULT_DIRECTORY, "pixels"));
+    }
+
+    /**
+     * Ambil piksel RGB gambar (read-only, RECORD_SIZE byte), atau null jika belum ada / file berubah
+     */
+    ByteBuffer get(File file) throws IOException {
+        if (disabled) {
+            return null;
+        }
+        String path = file.getAbsolutePath();
+        Entry entry;
+        synchronized (this) {
+            entry = index.get(path);
+        }
+        if (!matches(entry, file) && indexChannel.size() > indexEnd) {
+            // Mungkin sudah disimpan (ulang) proses lain sejak index terakhir dibaca
+            FileLocks.withLock(indexChannel, indexPath, () -> {
+                readIndexTail();
+                return null;
+            });
+            synchronized (this) {
+                entry = index.get(path);
+            }
+        }
+        if (!matches(entry, file)) {
+            return null;
+        }
+        return slice(entry.slot).asReadOnlyBuffer();
+    }
+
+    private static boolean matches(Entry entry, File file) {
+        return entry != null && entry.size == file.length() && entry.lastModified == file.lastModified();
+    }
+
+    /**
+     * Simpan piksel gambar 224x224 (hasil resize) ke slot baru.
+     * Slot dialokasikan sambil memegang kunci file index, sehingga proses lain yang memakai
+     * folder cache yang sama tidak menimpa slot ini.
+     */
+    void put(File file, BufferedImage resized) throws IOException {
+        if (resized.getWidth() != ModelPredictor.INPUT_SIZE || resized.getHeight() != ModelPredictor.INPUT_SIZE) {
+            throw new IllegalArgumentException("Ukuran gambar harus " + ModelPredictor.INPUT_SIZE + "x" + ModelPredictor.INPUT_SIZE);
+        }
+        if (disabled) {
+            return;
+        }
+
+        byte[] pixels = new byte[RECORD_SIZE];
+        int[] row = new int[ModelPredictor.INPUT_SIZE];
+        int offset = 0;
+        for (int y = 0; y < ModelPredictor.INPUT_SIZE; y++) {
+            resized.getRGB(0, y, row.length, 1, row, 0, row.length);
+            for (int pixel : row) {
+                pixels[offset++] = (byte) (pixel >> 16);
+                pixels[offset++] = (byte) (pixel >> 8);
+                pixels[offset++] = (byte) pixel;
+            }
+        }
+
+        String path = file.getAbsolutePath();
+        long size = file.length();
+        long lastModified = file.lastModified();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeUTF(path);
+            out.writeLong(size);
+            out.writeLong(lastModified);
+        }
+
+        FileLocks.withLock(indexChannel, indexPath, () -> {
+            // Slot berikutnya dihitung dari index terbaru, termasuk entri proses lain
+            readIndexTail();
+            int slot = nextSlot++;
+
+            MappedByteBuffer target = data.map(FileChannel.MapMode.READ_WRITE, (long) slot * RECORD_SIZE, RECORD_SIZE);
+            target.put(pixels);
+            // Piksel harus sudah di disk sebelum entri index menunjuk ke slot ini
+            target.force();
+
+            ByteBuffer record = ByteBuffer.allocate(bytes.size() + Integer.BYTES);
+            record.put(bytes.toByteArray()).putInt(slot);
+            record.flip();
+            long position = indexEnd;
+            while (record.hasRemaining()) {
+                indexChannel.write(record, position + record.position());
+            }
+            indexEnd = position + record.limit();
+            synchronized (this) {
+                index.put(path, new Entry(size, lastModified, slot));
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Matikan cache (misalnya setelah gagal menulis); get dan put tidak melakukan apa-apa lagi
+     */
+    void disable() {
+        disabled = true;
+    }
+
+    private ByteBuffer slice(int slot) throws IOException {
+        int segment = slot / SEGMENT_RECORDS;
+        MappedByteBuffer mapped = segment(segment);
+        ByteBuffer view = mapped.duplicate();
+        int start = (slot % SEGMENT_RECORDS) * RECORD_SIZE;
+        view.position(start);
+        view.limit(start + RECORD_SIZE);
+        return view.slice();
+    }
+
+    private synchronized MappedByteBuffer segment(int segment) throws IOException {
+        while (segments.size() <= segment) {
+            segments.add(null);
+        }
+        MappedByteBuffer mapped = segments.get(segment);
+        if (mapped == null) {
+            mapped = data.map(FileChannel.MapMode.READ_WRITE, segment * SEGMENT_BYTES, SEGMENT_BYTES);
+            segments.set(segment, mapped);
+        }
+        return mapped;
+    }
+
+    /**
+     * Baca entri index setelah indexEnd (dipanggil sambil memegang kunci file index)
+     */
+    private void readIndexTail() throws IOException {
+        long size = indexChannel.size();
+        if (size > indexEnd) {
+            ByteBuffer tail = ByteBuffer.allocate((int) (size - indexEnd));
+            while (tail.hasRemaining()) {
+                if (indexChannel.read(tail, indexEnd + tail.position()) < 0) {
+                    throw new EOFException();
+                }
+            }
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(tail.array()));
+            int consumed = 0;
+            try {
+                while (in.available() > 0) {
+                    String path = in.readUTF();
+                    long fileSize = in.readLong();
+                    long lastModified = in.readLong();
+                    int slot = in.readInt();
+                    synchronized (this) {
+                        index.put(path, new Entry(fileSize, lastModified, slot));
+                    }
+                    nextSlot = Math.max(nextSlot, slot + 1);
+                    consumed = tail.capacity() - in.available();
+                }
+            } catch (EOFException e) {
+                // Entri terakhir terpotong, dibuang di bawah
+            }
+            indexEnd += consumed;
+        }
+
+        // Entri terakhir terpotong (proses mati saat menulis) dibuang; aman karena
+        // penulis lain selalu menulis sambil memegang kunci
+        if (indexChannel.size() > indexEnd) {
+            indexChannel.truncate(indexEnd);
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        try {
+            for (MappedByteBuffer mapped : segments) {
+                if (mapped != null) {
+                    mapped.force();
+                }
+            }
+            indexChannel.close();
+            data.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+}
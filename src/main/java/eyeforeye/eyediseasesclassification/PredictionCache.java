@@ -0,0 +1,396 @@
+package eyeforeye.eyediseasesclassification;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Cache hasil prediksi berdasarkan isi file gambar.
+ * - Key: 128 bit pertama SHA-256 isi file, dengan pre-check path+ukuran+mtime agar file
+ *   yang tidak berubah tidak perlu di-hash ulang, juga di proses berikutnya (FileKeyIndex)
+ * - Tier memori: LRU berisi vektor probabilitas
+ * - Tier disk: file append-only per fingerprint model berisi record (key, probabilitas)
+ * Mengganti model otomatis memakai file cache yang berbeda. File disk boleh dipakai bersama
+ * beberapa proses: penambahan record dilakukan di bawah kunci file (lihat FileLocks) dan
+ * setiap record yang dibaca dicocokkan dulu key-nya.
+ */
+public class PredictionCache implements AutoCloseable {
+
+    public static final boolean ENABLED = Boolean.parseBoolean(System.getProperty("eye.cache", "true"));
+    public static final String DEFAULT_DIRECTORY = System.getProperty("eye.cacheDir", ".eye-cache");
+    public static final int DEFAULT_MEMORY_CAPACITY = Integer.getInteger("eye.cacheMemoryEntries", 50_000);
+
+    private static final int MAGIC = 0x45594550; // "EYEP"
+    private static final int HEADER_SIZE = 8;
+    private static final int KEY_SIZE = 16;
+
+    /**
+     * Key isi file (128 bit)
+     */
+    static final class Key {
+        final long high;
+        final long low;
+
+        Key(long high, long low) {
+            this.high = high;
+            this.low = low;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return high == other.high && low == other.low;
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(high * 31 + low);
+        }
+    }
+
+    private static final ThreadLocal<byte[]> HASH_BUFFER = ThreadLocal.withInitial(() -> new byte[64 * 1024]);
+
+    private final int numClasses;
+    private final int recordSize;
+    private final FileKeyIndex fileKeys;
+    private final Map<Key, float[]> memory;
+    private final Map<Key, Long> diskIndex = new HashMap<>();
+    private FileChannel disk;
+    private Path diskPath;
+    // Akhir record yang sudah masuk diskIndex; record setelahnya ditulis proses/objek lain
+    private long indexedEnd = HEADER_SIZE;
+
+    /**
+     * Buka cache untuk model tertentu. Tier disk dimatikan jika file cache tidak bisa dibuka.
+     */
+    public PredictionCache(File directory, String modelFingerprint, int numClasses, int memoryCapacity) {
+        this.numClasses = numClasses;
+        this.recordSize = KEY_SIZE + numClasses * Float.BYTES;
+        this.memory = new LinkedHashMap<Key, float[]>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, float[]> eldest) {
+                return size() > memoryCapacity;
+            }
+        };
+        this.fileKeys = new FileKeyIndex(directory);
+
+        try {
+            Files.createDirectories(directory.toPath());
+            Path file = directory.toPath().resolve("predictions-" + modelFingerprint + ".bin");
+            disk = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            diskPath = file;
+            FileLocks.withLock(disk, diskPath, () -> {
+                loadIndex();
+                return null;
+            });
+            System.out.println("🔹 Cache prediksi: " + diskIndex.size() + " entri dari " + file);
+        } catch (IOException e) {
+            System.err.println("⚠️ Cache disk tidak tersedia: " + e.getMessage());
+            closeDisk();
+        }
+    }
+
+    /**
+     * Buka cache dengan direktori dan kapasitas default untuk model di modelPath
+     */
+    public static PredictionCache open(String modelPath, int numClasses) {
+        return open(modelPath, numClasses, null);
+    }
+
+    /**
+     * Seperti open(String, int), dengan file cache terpisah untuk varian input
+     * (misalnya "graph" untuk preprocessing di TensorFlow); null berarti varian default
+     */
+    public static PredictionCache open(String modelPath, int numClasses, String variant) {
+        String fingerprint = fingerprintModel(modelPath);
+        return new PredictionCache(new File(DEFAULT_DIRECTORY),
+                variant == null ? fingerprint : fingerprint + "-" + variant,
+                numClasses, DEFAULT_MEMORY_CAPACITY);
+    }
+
+    /**
+     * Hitung key isi file, memakai ulang hash lama jika ukuran dan mtime tidak berubah
+     */
+    Key keyOf(File file) throws IOException {
+        String path = file.getAbsolutePath();
+        long size = file.length();
+        long lastModified = file.lastModified();
+
+        Key known = fileKeys.get(path, size, lastModified);
+        if (known != null) {
+            return known;
+        }
+
+        MessageDigest digest = sha256();
+        byte[] buffer = HASH_BUFFER.get();
+        try (InputStream in = Files.newInputStream(file.toPath())) {
+            int read;
+            while ((read = in.read(buffer)) > 0) {
+                digest.update(buffer, 0, read);
+            }
+        }
+        Key key = toKey(digest.digest());
+        fileKeys.put(path, size, lastModified, key);
+        return key;
+    }
+
+    /**
+     * Hitung key dari isi gambar yang sudah ada di memori (misalnya upload HTTP)
+     */
+    Key keyOf(byte[] data) {
+        MessageDigest digest = sha256();
+        digest.update(data);
+        return toKey(digest.digest());
+    }
+
+    /**
+     * Cari vektor probabilitas. Mengembalikan salinan, atau null jika tidak ada.
+     */
+    float[] lookup(Key key) {
+        synchronized (this) {
+            float[] cached = memory.get(key);
+            if (cached != null) {
+                return cached.clone();
+            }
+        }
+
+        float[] fromDisk = readFromDisk(key);
+        if (fromDisk != null) {
+            synchronized (this) {
+                memory.put(key, fromDisk);
+            }
+            return fromDisk.clone();
+        }
+        return null;
+    }
+
+    /**
+     * Simpan vektor probabilitas ke tier memori dan disk
+     */
+    void store(Key key, float[] probabilities) {
+        if (probabilities.length != numClasses) {
+            return;
+        }
+        float[] copy = probabilities.clone();
+        synchronized (this) {
+            memory.put(key, copy);
+            if (disk == null || diskIndex.containsKey(key)) {
+                return;
+            }
+            try {
+                ByteBuffer record = ByteBuffer.allocate(recordSize);
+                record.putLong(key.high).putLong(key.low);
+                for (float p : copy) {
+                    record.putFloat(p);
+                }
+                record.flip();
+                FileLocks.withLock(disk, diskPath, () -> {
+                    // Ambil dulu record yang ditambahkan penulis lain agar tidak menimpa posisinya
+                    catchUp();
+                    if (diskIndex.containsKey(key)) {
+                        return null;
+                    }
+                    long position = indexedEnd;
+                    while (record.hasRemaining()) {
+                        disk.write(record, position + record.position());
+                    }
+                    diskIndex.put(key, position);
+                    indexedEnd = position + recordSize;
+                    return null;
+                });
+            } catch (IOException e) {
+                System.err.println("⚠️ Gagal menulis cache disk: " + e.getMessage());
+                closeDisk();
+            }
+        }
+    }
+
+    private float[] readFromDisk(Key key) {
+        Long position;
+        FileChannel channel;
+        synchronized (this) {
+            position = diskIndex.get(key);
+            channel = disk;
+        }
+        if (channel == null) {
+            return null;
+        }
+
+        try {
+            if (position == null) {
+                // Mungkin sudah ditulis proses/objek lain sejak index terakhir dibaca
+                position = refreshIndex(key);
+                if (position == null) {
+                    return null;
+                }
+            }
+            ByteBuffer record = ByteBuffer.allocate(recordSize);
+            readFully(channel, record, position);
+            record.flip();
+            // Record milik gambar lain (file rusak atau ditimpa): anggap tidak ada
+            if (record.getLong() != key.high || record.getLong() != key.low) {
+                synchronized (this) {
+                    diskIndex.remove(key, position);
+                }
+                return null;
+            }
+            float[] probabilities = new float[numClasses];
+            record.asFloatBuffer().get(probabilities);
+            return probabilities;
+        } catch (IOException e) {
+            System.err.println("⚠️ Gagal membaca cache disk: " + e.getMessage());
+            return null;
+        }
+    }
+
+    private synchronized Long refreshIndex(Key key) throws IOException {
+        if (disk == null || disk.size() <= indexedEnd) {
+            return diskIndex.get(key);
+        }
+        FileLocks.withLock(disk, diskPath, () -> {
+            catchUp();
+            return null;
+        });
+        return diskIndex.get(key);
+    }
+
+    /**
+     * Baca header dan semua record (dipanggil sambil memegang kunci file)
+     */
+    private void loadIndex() throws IOException {
+        long size = disk.size();
+        if (size < HEADER_SIZE) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).putInt(MAGIC).putInt(numClasses);
+            header.flip();
+            disk.truncate(0);
+            disk.write(header, 0);
+            return;
+        }
+
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        readFully(disk, header, 0);
+        header.flip();
+        if (header.getInt() != MAGIC || header.getInt() != numClasses) {
+            throw new IOException("Format file cache tidak dikenali");
+        }
+
+        // Record terakhir yang terpotong (misalnya aplikasi mati saat menulis) diabaikan;
+        // aman dipotong karena penulis lain selalu menulis sambil memegang kunci
+        long records = (size - HEADER_SIZE) / recordSize;
+        disk.truncate(HEADER_SIZE + records * recordSize);
+        catchUp();
+    }
+
+    /**
+     * Masukkan record utuh setelah indexedEnd ke diskIndex (dipanggil sambil memegang kunci file).
+     * Sisa record terpotong di akhir file akan ditimpa oleh penulisan berikutnya.
+     */
+    private void catchUp() throws IOException {
+        long size = disk.size();
+        long end = HEADER_SIZE + (size - HEADER_SIZE) / recordSize * recordSize;
+        ByteBuffer chunk = ByteBuffer.allocate(recordSize * 4096);
+        long position = indexedEnd;
+        while (position < end) {
+            chunk.clear();
+            chunk.limit((int) Math.min(chunk.capacity(), end - position));
+            readFully(disk, chunk, position);
+            chunk.flip();
+            while (chunk.remaining() >= recordSize) {
+                long recordPosition = position + chunk.position();
+                Key key = new Key(chunk.getLong(), chunk.getLong());
+                chunk.position(chunk.position() + numClasses * Float.BYTES);
+                diskIndex.put(key, recordPosition);
+            }
+            position += chunk.limit();
+        }
+        indexedEnd = Math.max(indexedEnd, end);
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        long offset = position;
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, offset);
+            if (read < 0) {
+                throw new IOException("File cache terpotong");
+            }
+            offset += read;
+        }
+    }
+
+    /**
+     * Fingerprint model: SHA-256 isi saved_model.pb ditambah nama, ukuran dan mtime file variabel
+     */
+    static String fingerprintModel(String modelPath) {
+        MessageDigest digest = sha256();
+        Path root = new File(modelPath).toPath();
+        try {
+            Path graph = root.resolve("saved_model.pb");
+            if (Files.exists(graph)) {
+                digest.update(Files.readAllBytes(graph));
+            }
+            Path variables = root.resolve("variables");
+            if (Files.isDirectory(variables)) {
+                try (Stream<Path> files = Files.list(variables)) {
+                    files.sorted().forEach(p -> {
+                        File f = p.toFile();
+                        digest.update((f.getName() + ":" + f.length() + ":" + f.lastModified() + ";").getBytes());
+                    });
+                }
+            }
+        } catch (IOException e) {
+            digest.update(root.toAbsolutePath().toString().getBytes());
+        }
+
+        byte[] hash = digest.digest();
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 8; i++) {
+            sb.append(String.format("%02x", hash[i]));
+        }
+        return sb.toString();
+    }
+
+    private static Key toKey(byte[] hash) {
+        ByteBuffer buffer = ByteBuffer.wrap(Arrays.copyOf(hash, KEY_SIZE));
+        return new Key(buffer.getLong(), buffer.getLong());
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private synchronized void closeDisk() {
+        if (disk != null) {
+            try {
+                disk.close();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+            disk = null;
+        }
+    }
+
+    @Override
+    public void close() {
+        closeDisk();
+        fileKeys.close();
+    }
+}
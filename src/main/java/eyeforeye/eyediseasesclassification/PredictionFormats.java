@@ -0,0 +1,134 @@
+package eyeforeye.eyediseasesclassification;
+
+/**
+ * Serialisasi PredictionResult ke CSV dan JSON (untuk mode command-line dan server)
+ */
+public final class PredictionFormats {
+
+    private PredictionFormats() {
+    }
+
+    /**
+     * Header CSV: file, status, kelas prediksi, confidence, error, lalu satu kolom per kelas
+     */
+    public static String csvHeader(String[] classNames) {
+        StringBuilder sb = new StringBuilder("file,status,predicted_class,confidence,error");
+        for (String className : classNames) {
+            sb.append(',').append(csvField(className));
+        }
+        return sb.toString();
+    }
+
+    public static String toCsv(PredictionResult result, String[] classNames) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(csvField(filePath(result))).append(',')
+          .append(result.getStatus()).append(',');
+        if (result.isSuccess()) {
+            sb.append(csvField(result.getPredictedClass())).append(',')
+              .append(result.getConfidence()).append(',');
+        } else {
+            sb.append(",,").append(csvField(result.getErrorMessage()));
+        }
+        if (result.isSuccess()) {
+            float[] probabilities = result.getProbabilities();
+            for (float probability : probabilities) {
+                sb.append(',').append(probability);
+            }
+        } else {
+            for (int i = 0; i < classNames.length; i++) {
+                sb.append(',');
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Objek JSON dengan field yang sama seperti getter PredictionResult
+     */
+    public static String toJson(PredictionResult result) {
+        return toJson(result, 0);
+    }
+
+    /**
+     * Seperti toJson(result), ditambah array "top" berisi topK kelas teratas (jika topK > 0)
+     */
+    public static String toJson(PredictionResult result, int topK) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("{\"file\":").append(jsonString(filePath(result)))
+          .append(",\"status\":").append(jsonString(result.getStatus()));
+        if (result.isSuccess()) {
+            sb.append(",\"predictedClass\":").append(jsonString(result.getPredictedClass()))
+              .append(",\"predictedClassIndex\":").append(result.getPredictedClassIndex())
+              .append(",\"confidence\":").append(result.getConfidence())
+              .append(",\"probabilities\":{");
+            String[] classNames = result.getClassNames();
+            float[] probabilities = result.getProbabilities();
+            for (int i = 0; i < classNames.length; i++) {
+                if (i > 0) {
+                    sb.append(',');
+                }
+                sb.append(jsonString(classNames[i])).append(':').append(probabilities[i]);
+            }
+            sb.append('}');
+            if (topK > 0) {
+                TopK top = result.topK(topK);
+                sb.append(",\"top\":[");
+                for (int rank = 0; rank < top.size(); rank++) {
+                    if (rank > 0) {
+                        sb.append(',');
+                    }
+                    int index = top.indexAt(rank);
+                    sb.append("{\"class\":").append(jsonString(classNames[index]))
+                      .append(",\"index\":").append(index)
+                      .append(",\"probability\":").append(top.scoreAt(rank)).append('}');
+                }
+                sb.append(']');
+            }
+        } else {
+            sb.append(",\"error\":").append(jsonString(result.getErrorMessage()));
+        }
+        return sb.append('}').toString();
+    }
+
+    private static String filePath(PredictionResult result) {
+        return result.getImageFile() != null ? result.getImageFile().getPath() : "";
+    }
+
+    static String csvField(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    static String jsonString(String value) {
+        StringBuilder sb = new StringBuilder(value.length() + 2).append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    sb.append("\\\"");
+                    break;
+                case '\\':
+                    sb.append("\\\\");
+                    break;
+                case '\n':
+                    sb.append("\\n");
+                    break;
+                case '\r':
+                    sb.append("\\r");
+                    break;
+                case '\t':
+                    sb.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        sb.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        sb.append(c);
+                    }
+            }
+        }
+        return sb.append('"').toString();
+    }
+}
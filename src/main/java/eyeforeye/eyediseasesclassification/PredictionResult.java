@@ -1,8 +1,6 @@
 package eyeforeye.eyediseasesclassification;
 
 import java.io.File;
-import java.util.Arrays;
-import java.util.Comparator;
 
 /**
  * Model untuk menyimpan hasil prediksi lengkap dengan probabilitas semua kelas
@@ -14,6 +12,8 @@ public class PredictionResult {
     private final int predictedClassIndex;
     private final String status;
     private final String errorMessage;
+
+    private static final float[] EMPTY = new float[0];
     
     // Constructor untuk hasil sukses
     public PredictionResult(File imageFile, String[] classNames, float[] probabilities) {
@@ -102,21 +102,33 @@ public class PredictionResult {
      * Get top N predictions sorted by confidence
      */
     public ClassProbability[] getTopNPredictions(int n) {
-        if (classNames == null || probabilities == null) {
+        if (classNames == null || probabilities == null || n <= 0) {
             return new ClassProbability[0];
         }
-        
-        ClassProbability[] results = new ClassProbability[classNames.length];
-        for (int i = 0; i < classNames.length; i++) {
-            results[i] = new ClassProbability(classNames[i], probabilities[i], i);
+
+        // Hanya N kelas teratas yang dibuatkan objek
+        TopK top = topK(n);
+        ClassProbability[] results = new ClassProbability[top.size()];
+        for (int rank = 0; rank < results.length; rank++) {
+            int index = top.indexAt(rank);
+            results[rank] = new ClassProbability(classNames[index], top.scoreAt(rank), index);
         }
-        
-        // Sort by probability descending
-        Arrays.sort(results, Comparator.comparing(ClassProbability::getProbability).reversed());
-        
-        // Return top N
-        int resultSize = Math.min(n, results.length);
-        return Arrays.copyOf(results, resultSize);
+        return results;
+    }
+
+    /**
+     * K kelas teratas sebagai indeks + skor primitif (tanpa objek per kelas)
+     */
+    public TopK topK(int k) {
+        return topK(new TopK(k));
+    }
+
+    /**
+     * Seperti topK(int), tetapi mengisi objek TopK yang dipakai ulang (tanpa alokasi).
+     * Untuk hasil error, target dikosongkan (size() == 0).
+     */
+    public TopK topK(TopK target) {
+        return TopK.select(probabilities != null ? probabilities : EMPTY, target);
     }
     
     /**
@@ -0,0 +1,100 @@
+package eyeforeye.eyediseasesclassification;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.nio.ByteBuffer;
+
+/**
+ * Gambar yang sudah di-decode dan di-resize ke ukuran input model (BufferedImage,
+ * piksel RGB uint8 dari PixelCache, atau float RGB dari GraphPreprocessor), hasil yang sudah ada di PredictionCache,
+ * atau pesan error jika tahap preprocessing gagal.
+ */
+class PreparedImage {
+    private final File imageFile;
+    private final BufferedImage image;
+    private final ByteBuffer pixels;
+    private final float[] floats;
+    private final String errorMessage;
+    private final PredictionCache.Key cacheKey;
+    private final float[] cachedProbabilities;
+
+    private PreparedImage(File imageFile, BufferedImage image, ByteBuffer pixels, float[] floats, String errorMessage,
+                          PredictionCache.Key cacheKey, float[] cachedProbabilities) {
+        this.imageFile = imageFile;
+        this.image = image;
+        this.pixels = pixels;
+        this.floats = floats;
+        this.errorMessage = errorMessage;
+        this.cacheKey = cacheKey;
+        this.cachedProbabilities = cachedProbabilities;
+    }
+
+    static PreparedImage of(File imageFile, BufferedImage image) {
+        return of(imageFile, image, null);
+    }
+
+    static PreparedImage of(File imageFile, BufferedImage image, PredictionCache.Key cacheKey) {
+        return new PreparedImage(imageFile, image, null, null, null, cacheKey, null);
+    }
+
+    static PreparedImage pixels(File imageFile, ByteBuffer pixels, PredictionCache.Key cacheKey) {
+        return new PreparedImage(imageFile, null, pixels, null, null, cacheKey, null);
+    }
+
+    static PreparedImage floats(File imageFile, float[] floats, PredictionCache.Key cacheKey) {
+        return new PreparedImage(imageFile, null, null, floats, null, cacheKey, null);
+    }
+
+    static PreparedImage cached(File imageFile, float[] probabilities) {
+        return new PreparedImage(imageFile, null, null, null, null, null, probabilities);
+    }
+
+    static PreparedImage error(File imageFile, String errorMessage) {
+        return new PreparedImage(imageFile, null, null, null, errorMessage, null, null);
+    }
+
+    File getImageFile() {
+        return imageFile;
+    }
+
+    BufferedImage getImage() {
+        return image;
+    }
+
+    /**
+     * Piksel RGB uint8 (HWC) jika gambar berasal dari PixelCache, selain itu null
+     */
+    ByteBuffer getPixels() {
+        return pixels;
+    }
+
+    /**
+     * Float RGB [0,1] (HWC) jika gambar diproses di graph TensorFlow, selain itu null
+     */
+    float[] getFloats() {
+        return floats;
+    }
+
+    String getErrorMessage() {
+        return errorMessage;
+    }
+
+    PredictionCache.Key getCacheKey() {
+        return cacheKey;
+    }
+
+    float[] getCachedProbabilities() {
+        return cachedProbabilities;
+    }
+
+    boolean isCached() {
+        return cachedProbabilities != null;
+    }
+
+    /**
+     * True jika gambar siap dikirim ke model (bukan error dan belum ada di cache)
+     */
+    boolean isReady() {
+        return errorMessage == null && cachedProbabilities == null;
+    }
+}
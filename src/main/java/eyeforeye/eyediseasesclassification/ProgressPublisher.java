@@ -0,0 +1,90 @@
+package eyeforeye.eyediseasesclassification;
+
+import javafx.animation.AnimationTimer;
+import javafx.application.Platform;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Mengumpulkan pembaruan progres dari thread worker dan meneruskannya ke UI paling banyak
+ * sekali per frame (AnimationTimer), bukan satu Platform.runLater per gambar.
+ * Item yang masuk di antara dua frame diserahkan sekaligus ke renderer, sehingga
+ * biaya UI tidak bertambah seiring jumlah gambar per detik.
+ *
+ * @param <T> item yang dikumpulkan (misalnya hasil prediksi untuk baris tabel)
+ */
+public final class ProgressPublisher<T> {
+
+    /**
+     * Dipanggil di FX Application Thread dengan item yang masuk sejak frame sebelumnya
+     * (bisa kosong jika hanya update() yang dipanggil)
+     */
+    public interface Renderer<T> {
+        void render(List<T> items);
+    }
+
+    private final Renderer<T> renderer;
+    private final Queue<T> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean dirty = new AtomicBoolean();
+    private final AnimationTimer timer = new AnimationTimer() {
+        @Override
+        public void handle(long now) {
+            flush();
+        }
+    };
+
+    public ProgressPublisher(Renderer<T> renderer) {
+        this.renderer = renderer;
+    }
+
+    /**
+     * Mulai meneruskan pembaruan ke UI (panggil dari FX thread)
+     */
+    public void start() {
+        timer.start();
+    }
+
+    /**
+     * Kirim item ke frame berikutnya (aman dari thread mana pun)
+     */
+    public void submit(T item) {
+        pending.add(item);
+        dirty.set(true);
+    }
+
+    /**
+     * Tandai bahwa progres berubah tanpa item baru (aman dari thread mana pun)
+     */
+    public void update() {
+        dirty.set(true);
+    }
+
+    /**
+     * Hentikan timer, tampilkan sisa pembaruan, lalu jalankan then di FX thread.
+     * Aman dipanggil dari thread worker setelah pekerjaan selesai.
+     */
+    public void finish(Runnable then) {
+        Platform.runLater(() -> {
+            timer.stop();
+            flush();
+            then.run();
+        });
+    }
+
+    private void flush() {
+        if (!dirty.getAndSet(false)) {
+            return;
+        }
+        List<T> items = new ArrayList<>();
+        for (T item; (item = pending.poll()) != null; ) {
+            items.add(item);
+        }
+        long start = PerformanceMetrics.start();
+        renderer.render(items);
+        PerformanceMetrics.record(PerformanceMetrics.Stage.UI_UPDATE, start, items.size());
+    }
+}
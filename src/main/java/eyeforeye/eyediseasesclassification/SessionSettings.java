@@ -0,0 +1,175 @@
+package eyeforeye.eyediseasesclassification;
+
+import org.tensorflow.proto.framework.ConfigProto;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Properties;
+
+/**
+ * Pengaturan thread session TensorFlow (ConfigProto) untuk ModelPredictor.
+ * 0 berarti default TensorFlow (sejumlah core). Nilai diambil dari system property
+ * (-Deye.intraOpThreads, -Deye.interOpThreads, -Deye.perSessionThreads, -Deye.replicas), lalu dari
+ * profil hasil perintah "tune" (-Deye.tuningFile, default .eye-cache/tuning.properties).
+ *
+ * Dengan replicas &gt; 1, ModelPredictor memuat beberapa session (replika) yang masing-masing
+ * punya thread pool sendiri yang sempit: intra-op default = jumlah core / replika.
+ *
+ * TensorFlow tidak menyediakan pengaturan afinitas (pinning) thread lewat ConfigProto;
+ * gunakan taskset/numactl pada proses jika core perlu dipisah dari worker decode.
+ */
+public final class SessionSettings {
+
+    public static final File TUNING_FILE = new File(System.getProperty("eye.tuningFile",
+            new File(PredictionCache.DEFAULT_DIRECTORY, "tuning.properties").getPath()));
+
+    private static final String INTRA_OP = "intraOpThreads";
+    private static final String INTER_OP = "interOpThreads";
+    private static final String PER_SESSION = "perSessionThreads";
+    private static final String BATCH_SIZE = "batchSize";
+    private static final String REPLICAS = "replicas";
+
+    private static final Properties TUNED = loadTuning();
+
+    /**
+     * Pengaturan dari system property / profil tuning
+     */
+    public static final SessionSettings DEFAULT = new SessionSettings(
+            setting(INTRA_OP, 0), setting(INTER_OP, 0),
+            Boolean.parseBoolean(System.getProperty("eye." + PER_SESSION, TUNED.getProperty(PER_SESSION, "false"))),
+            Math.max(1, setting(REPLICAS, 1)));
+
+    private final int intraOpThreads;
+    private final int interOpThreads;
+    private final boolean perSessionThreads;
+    private final int replicas;
+
+    public SessionSettings(int intraOpThreads, int interOpThreads, boolean perSessionThreads) {
+        this(intraOpThreads, interOpThreads, perSessionThreads, 1);
+    }
+
+    public SessionSettings(int intraOpThreads, int interOpThreads, boolean perSessionThreads, int replicas) {
+        if (intraOpThreads < 0 || interOpThreads < 0) {
+            throw new IllegalArgumentException("Jumlah thread harus >= 0");
+        }
+        if (replicas < 1) {
+            throw new IllegalArgumentException("Jumlah replika harus >= 1");
+        }
+        this.intraOpThreads = intraOpThreads;
+        this.interOpThreads = interOpThreads;
+        this.perSessionThreads = perSessionThreads;
+        this.replicas = replicas;
+    }
+
+    public int getIntraOpThreads() {
+        return intraOpThreads;
+    }
+
+    public int getInterOpThreads() {
+        return interOpThreads;
+    }
+
+    public boolean isPerSessionThreads() {
+        return perSessionThreads;
+    }
+
+    public int getReplicas() {
+        return replicas;
+    }
+
+    /**
+     * Pengaturan untuk satu session replika: thread pool sendiri (per-session) dengan
+     * intra-op = core / replika jika tidak diatur. Tanpa replika, pengaturan ini sendiri.
+     */
+    SessionSettings forReplica() {
+        if (replicas == 1) {
+            return this;
+        }
+        int cores = Runtime.getRuntime().availableProcessors();
+        int intraOp = intraOpThreads > 0 ? intraOpThreads : Math.max(1, cores / replicas);
+        int interOp = interOpThreads > 0 ? interOpThreads : 1;
+        return new SessionSettings(intraOp, interOp, true, 1);
+    }
+
+    /**
+     * ConfigProto untuk SavedModelBundle.loader, atau null jika semuanya default
+     */
+    ConfigProto toConfigProto() {
+        if (intraOpThreads == 0 && interOpThreads == 0 && !perSessionThreads) {
+            return null;
+        }
+        return ConfigProto.newBuilder()
+                .setIntraOpParallelismThreads(intraOpThreads)
+                .setInterOpParallelismThreads(interOpThreads)
+                .setUsePerSessionThreads(perSessionThreads)
+                .build();
+    }
+
+    /**
+     * Ukuran batch dari profil tuning, atau fallback jika belum pernah di-tune
+     */
+    static int tunedBatchSize(int fallback) {
+        try {
+            return Integer.parseInt(TUNED.getProperty(BATCH_SIZE, String.valueOf(fallback)));
+        } catch (NumberFormatException e) {
+            return fallback;
+        }
+    }
+
+    /**
+     * Simpan konfigurasi terbaik hasil tuning agar dipakai pada run berikutnya
+     */
+    static void saveTuning(File file, SessionSettings settings, int batchSize, String comment) throws IOException {
+        Properties properties = new Properties();
+        properties.setProperty(INTRA_OP, String.valueOf(settings.intraOpThreads));
+        properties.setProperty(INTER_OP, String.valueOf(settings.interOpThreads));
+        properties.setProperty(PER_SESSION, String.valueOf(settings.perSessionThreads));
+        properties.setProperty(REPLICAS, String.valueOf(settings.replicas));
+        properties.setProperty(BATCH_SIZE, String.valueOf(batchSize));
+
+        File parent = file.getAbsoluteFile().getParentFile();
+        if (parent != null && !parent.isDirectory() && !parent.mkdirs()) {
+            throw new IOException("Gagal membuat folder " + parent);
+        }
+        try (OutputStream out = new FileOutputStream(file)) {
+            properties.store(out, comment);
+        }
+    }
+
+    private static int setting(String name, int fallback) {
+        Integer value = Integer.getInteger("eye." + name);
+        if (value != null) {
+            return value;
+        }
+        try {
+            return Integer.parseInt(TUNED.getProperty(name, String.valueOf(fallback)));
+        } catch (NumberFormatException e) {
+            return fallback;
+        }
+    }
+
+    private static Properties loadTuning() {
+        Properties properties = new Properties();
+        if (TUNING_FILE.isFile()) {
+            try (InputStream in = new FileInputStream(TUNING_FILE)) {
+                properties.load(in);
+            } catch (IOException e) {
+                System.err.println("⚠️ Gagal membaca profil tuning " + TUNING_FILE + ": " + e.getMessage());
+            }
+        }
+        return properties;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("intra-op=%s, inter-op=%s%s%s",
+                intraOpThreads == 0 ? "default" : String.valueOf(intraOpThreads),
+                interOpThreads == 0 ? "default" : String.valueOf(interOpThreads),
+                perSessionThreads ? ", per-session" : "",
+                replicas > 1 ? ", " + replicas + " replika" : "");
+    }
+}
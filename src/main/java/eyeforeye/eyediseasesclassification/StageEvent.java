@@ -0,0 +1,32 @@
+package eyeforeye.eyediseasesclassification;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Event JFR untuk satu tahap prediksi (decode, resize, tensor, session.run, ...).
+ * Aktifkan dengan -XX:StartFlightRecording atau lewat JMC; tanpa rekaman aktif,
+ * event tidak dibuat sama sekali (lihat PerformanceMetrics.record).
+ */
+@Name("eyeforeye.Stage")
+@Label("Tahap Prediksi")
+@Description("Durasi satu tahap prediksi gambar")
+@Category({"EyeForEye", "Prediksi"})
+@StackTrace(false)
+final class StageEvent extends Event {
+
+    @Label("Tahap")
+    String stage;
+
+    @Label("Latensi")
+    @Timespan(Timespan.NANOSECONDS)
+    long latency;
+
+    @Label("Jumlah Gambar")
+    int images;
+}
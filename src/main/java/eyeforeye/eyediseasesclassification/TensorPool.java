@@ -0,0 +1,71 @@
+package eyeforeye.eyediseasesclassification;
+
+import org.tensorflow.ndarray.Shape;
+import org.tensorflow.types.TFloat32;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Pool tensor input berukuran tetap [N,tinggi,lebar,kanal], dikelompokkan per ukuran batch.
+ * Tensor dipinjam untuk satu session.run lalu dikembalikan, sehingga memori native
+ * tidak dialokasikan ulang pada setiap prediksi.
+ */
+final class TensorPool implements AutoCloseable {
+
+    private final long height;
+    private final long width;
+    private final long channels;
+    private final Map<Long, Queue<TFloat32>> freeTensors = new ConcurrentHashMap<>();
+    private volatile boolean closed;
+
+    TensorPool(long height, long width, long channels) {
+        this.height = height;
+        this.width = width;
+        this.channels = channels;
+    }
+
+    /**
+     * Pinjam tensor untuk batch berukuran batchSize (dibuat baru jika pool kosong)
+     */
+    TFloat32 borrow(long batchSize) {
+        Queue<TFloat32> queue = freeTensors.get(batchSize);
+        TFloat32 tensor = queue != null ? queue.poll() : null;
+        if (tensor == null) {
+            tensor = TFloat32.tensorOf(Shape.of(batchSize, height, width, channels));
+        }
+        return tensor;
+    }
+
+    /**
+     * Kembalikan tensor ke pool. Jika pool sudah ditutup, tensor langsung dilepas.
+     */
+    void release(TFloat32 tensor) {
+        if (closed) {
+            tensor.close();
+            return;
+        }
+        long batchSize = tensor.shape().get(0);
+        freeTensors.computeIfAbsent(batchSize, k -> new ConcurrentLinkedQueue<>()).offer(tensor);
+        if (closed) {
+            drain();
+        }
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        drain();
+    }
+
+    private void drain() {
+        for (Queue<TFloat32> queue : freeTensors.values()) {
+            TFloat32 tensor;
+            while ((tensor = queue.poll()) != null) {
+                tensor.close();
+            }
+        }
+    }
+}
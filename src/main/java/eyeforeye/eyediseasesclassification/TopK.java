@@ -0,0 +1,85 @@
+package eyeforeye.eyediseasesclassification;
+
+/**
+ * K kelas dengan skor tertinggi dalam array primitif (indeks kelas + skor), urut menurun.
+ * Seleksi memakai insertion ke array berukuran K, tanpa boxing dan tanpa mengurutkan
+ * semua kelas. Objek TopK dapat dipakai ulang antar prediksi sehingga tidak ada alokasi.
+ * Skor sama diurutkan berdasarkan indeks kelas terkecil (sama seperti getTopNPredictions).
+ */
+public final class TopK {
+
+    private final int[] indices;
+    private final float[] scores;
+    private int size;
+
+    public TopK(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("K harus >= 1");
+        }
+        this.indices = new int[capacity];
+        this.scores = new float[capacity];
+    }
+
+    /**
+     * Pilih K skor tertinggi ke dalam target (dipakai ulang). K = min(capacity target, jumlah skor).
+     */
+    public static TopK select(float[] values, TopK target) {
+        int k = Math.min(target.indices.length, values.length);
+        int[] indices = target.indices;
+        float[] scores = target.scores;
+        int size = 0;
+        if (k == 0) {
+            target.size = 0;
+            return target;
+        }
+
+        for (int i = 0; i < values.length; i++) {
+            float value = values[i];
+            // Lewati jika tidak lebih besar dari elemen terakhir yang sudah penuh
+            if (size == k && Float.compare(value, scores[size - 1]) <= 0) {
+                continue;
+            }
+            int pos = size < k ? size++ : size - 1;
+            while (pos > 0 && Float.compare(value, scores[pos - 1]) > 0) {
+                scores[pos] = scores[pos - 1];
+                indices[pos] = indices[pos - 1];
+                pos--;
+            }
+            scores[pos] = value;
+            indices[pos] = i;
+        }
+
+        target.size = size;
+        return target;
+    }
+
+    public static TopK select(float[] values, int k) {
+        return select(values, new TopK(k));
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Indeks kelas peringkat ke-rank (0 = tertinggi)
+     */
+    public int indexAt(int rank) {
+        checkRank(rank);
+        return indices[rank];
+    }
+
+    /**
+     * Skor peringkat ke-rank (0 = tertinggi)
+     */
+    public float scoreAt(int rank) {
+        checkRank(rank);
+        return scores[rank];
+    }
+
+    private void checkRank(int rank) {
+        if (rank < 0 || rank >= size) {
+            throw new IndexOutOfBoundsException("Peringkat " + rank + " di luar 0.." + (size - 1));
+        }
+    }
+}